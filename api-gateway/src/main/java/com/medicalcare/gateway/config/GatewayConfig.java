@@ -2,6 +2,7 @@ package com.medicalcare.gateway.config;
 
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -41,6 +42,13 @@ public class GatewayConfig {
                                         .setBackoff(java.time.Duration.ofMillis(100), java.time.Duration.ofMillis(200), 2, false)))
                         .uri("lb://application-service"))
 
+                // Notification Service の通知プッシュ（SSE）: 長時間の接続のため応答タイムアウトと再試行を外す
+                .route("notification-service-stream", r -> r
+                        .order(-1)
+                        .path("/api/notifications/users/*/stream")
+                        .uri("lb://notification-service")
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, -1))
+
                 // Notification Service へのルーティング
                 .route("notification-service", r -> r
                         .path("/api/notifications", "/api/notifications/**")
@@ -0,0 +1,83 @@
+package com.medicalcare.applicationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.dto.ApplicationSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一覧レスポンスのベンチマーク（エンティティ全体とサマリーの比較）
+ * 1ページ分の申請をJSONに変換する時間を SampleTime で計測する（p0.99 が p99 レイテンシ）。
+ * 1ページのペイロードのバイト数はセットアップ時に出力する。DBからの読み込み量の差は含めない
+ * <p>
+ * 実行: ./gradlew jmh -Pjmh.includes=ApplicationListPayloadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplicationListPayloadBenchmark {
+
+    @Param({ "50", "500" })
+    private int pageSize;
+
+    // 説明の文字数（申請内容の説明は数百〜数千字を想定）
+    @Param({ "2000" })
+    private int descriptionLength;
+
+    private ObjectMapper objectMapper;
+    private List<Application> entities;
+    private List<ApplicationSummary> summaries;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        String description = "申請内容の説明。".repeat(descriptionLength / 8);
+        LocalDateTime now = LocalDateTime.now();
+        entities = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Application application = new Application(String.format("APP-%010d", i), 1000L + i % 50, 5000L + i,
+                    "MEDICAL_DEVICE", "医療機器の導入申請 " + i, description);
+            application.setId((long) i);
+            application.setVersion(0L);
+            application.setStatus(Application.ApplicationStatus.REJECTED);
+            application.setSubmittedAt(now);
+            application.setRejectedAt(now);
+            application.setRejectionReason("書類に不備があるため却下します。".repeat(20));
+            entities.add(application);
+        }
+        summaries = entities.stream().map(ApplicationSummary::of).toList();
+        System.out.printf("%npayload bytes per page: entity=%d summary=%d%n",
+                objectMapper.writeValueAsBytes(entities).length, objectMapper.writeValueAsBytes(summaries).length);
+    }
+
+    @Benchmark
+    public byte[] entity() throws Exception {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] summary() throws Exception {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,67 @@
+package com.medicalcare.applicationservice.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 申請番号ジェネレーターのベンチマーク（従来方式とシーケンスブロック方式の比較）
+ * シーケンスの nextval は AtomicLong で代用し、ブロック取得時のDB往復は含めない
+ * <p>
+ * 実行: ./gradlew jmh （割り当て量は -prof gc 相当の jmh.profilers 設定で確認）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplicationNumberGeneratorBenchmark {
+
+    @Param({ "100", "1000" })
+    private int blockSize;
+
+    private ApplicationNumberGenerator random;
+    private ApplicationNumberGenerator sequenceBlock;
+
+    @Setup
+    public void setUp() {
+        AtomicLong sequence = new AtomicLong(1);
+        random = new RandomApplicationNumberGenerator();
+        sequenceBlock = new SequenceBlockApplicationNumberGenerator(() -> sequence.getAndAdd(blockSize), blockSize);
+    }
+
+    @Benchmark
+    public String random() {
+        return random.next();
+    }
+
+    @Benchmark
+    public String sequenceBlock() {
+        return sequenceBlock.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String randomContended() {
+        return random.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String sequenceBlockContended() {
+        return sequenceBlock.next();
+    }
+}
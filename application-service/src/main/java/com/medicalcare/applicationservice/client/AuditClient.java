@@ -0,0 +1,43 @@
+package com.medicalcare.applicationservice.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+
+/**
+ * 監査サービスのクライアント
+ */
+@FeignClient(name = "audit-service", contextId = "auditClient")
+public interface AuditClient {
+
+    /**
+     * 監査ログをまとめて登録する（監査サービス側で eventId により重複排除される）
+     * 検証エラーのイベントは登録されず、200 のまま rejected と errors で返される
+     */
+    @PostMapping(value = "/api/audit/log/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    BulkIngestResult ingest(@RequestBody List<AuditEvent> events);
+
+    /**
+     * 監査ログ1件（監査サービスの AuditEventRequest に対応）
+     */
+    record AuditEvent(String eventId, String userId, String action, String resource, String resourceId,
+            String details) {
+    }
+
+    /**
+     * 一括登録の結果（監査サービスの BulkIngestResult に対応）
+     * errors は先頭の一部のみで、rejected は拒否された全件数。complete が false の場合は途中で中断している
+     */
+    record BulkIngestResult(long accepted, long rejected, long duplicates, boolean complete,
+            List<RowError> errors) {
+    }
+
+    /**
+     * 拒否されたイベントと、リクエスト内での位置（0始まり）
+     */
+    record RowError(long index, String message) {
+    }
+}
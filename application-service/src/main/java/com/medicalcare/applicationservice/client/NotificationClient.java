@@ -0,0 +1,21 @@
+package com.medicalcare.applicationservice.client;
+
+import com.medicalcare.applicationservice.dto.ApplicationEvent;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+
+/**
+ * 通知サービスのクライアント
+ */
+@FeignClient(name = "notification-service", contextId = "notificationClient")
+public interface NotificationClient {
+
+    /**
+     * 申請イベントをまとめて配信する（通知サービス側で eventId により重複排除される）
+     */
+    @PostMapping("/api/notifications/events")
+    void deliverApplicationEvents(@RequestBody List<ApplicationEvent> events);
+}
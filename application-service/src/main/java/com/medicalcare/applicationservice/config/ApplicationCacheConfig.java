@@ -0,0 +1,25 @@
+package com.medicalcare.applicationservice.config;
+
+import com.medicalcare.applicationservice.service.ApplicationCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 申請キャッシュ設定
+ * 他インスタンスからのキャッシュ削除通知を受信するリスナーを登録
+ */
+@Configuration
+public class ApplicationCacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer applicationCacheListenerContainer(RedisConnectionFactory connectionFactory,
+            ApplicationCache applicationCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(applicationCache, new ChannelTopic(ApplicationCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,59 @@
+package com.medicalcare.applicationservice.config;
+
+import com.medicalcare.applicationservice.service.ApplicationNumberGenerator;
+import com.medicalcare.applicationservice.service.RandomApplicationNumberGenerator;
+import com.medicalcare.applicationservice.service.SequenceBlockApplicationNumberGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 申請番号ジェネレーター設定
+ * application.number.generator で実装を選択する
+ */
+@Configuration
+public class ApplicationNumberConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationNumberConfig.class);
+
+    private static final String SEQUENCE = "application_number_seq";
+
+    /**
+     * DBシーケンスのブロック事前割り当て（既定）
+     * block-size はシーケンス作成時の増分にのみ使い、以降は全インスタンスが既存シーケンスの増分を
+     * ブロックサイズとして使う（インスタンス間でブロックサイズが食い違うとブロックが重なるため）
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.number.generator", havingValue = "sequence", matchIfMissing = true)
+    public ApplicationNumberGenerator sequenceBlockApplicationNumberGenerator(JdbcTemplate jdbcTemplate,
+            @Value("${application.number.block-size:100}") int blockSize) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " INCREMENT BY " + blockSize);
+        // nextval と同じく search_path で解決したシーケンスの増分を読む
+        Long increment = jdbcTemplate.queryForList(
+                "SELECT seqincrement FROM pg_sequence WHERE seqrelid = to_regclass(?)", Long.class, SEQUENCE)
+                .stream().findFirst().orElse(null);
+        if (increment == null || increment < 1) {
+            throw new IllegalStateException("Cannot read a positive increment for sequence " + SEQUENCE
+                    + " (found " + increment + "); check that it exists in the search_path of the datasource user");
+        }
+        if (increment != blockSize) {
+            log.warn("{} increments by {}, ignoring application.number.block-size={}", SEQUENCE, increment, blockSize);
+        }
+        return new SequenceBlockApplicationNumberGenerator(
+                () -> jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE + "')", Long.class),
+                Math.toIntExact(increment));
+    }
+
+    /**
+     * 従来方式（UUIDの先頭8桁）
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.number.generator", havingValue = "random")
+    public ApplicationNumberGenerator randomApplicationNumberGenerator() {
+        return new RandomApplicationNumberGenerator();
+    }
+}
@@ -0,0 +1,109 @@
+package com.medicalcare.applicationservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * ID採番シーケンスの初期化
+ * IDENTITY列で作成済みのテーブルを、Hibernate の pooled オプティマイザー用シーケンスへ移行する
+ * （IDENTITY を外し、シーケンスを既存IDの最大値まで進める）。
+ * シーケンスの増分を id.allocation-size に合わせ、Hibernate は起動時にその増分を割り当てサイズとして読み込む
+ * （hibernate.id.sequence.increment_size_mismatch_strategy=fix）。
+ * そのため EntityManagerFactory より先に実行する
+ * <p>
+ * 稼働中に割り当てサイズを小さくすると旧サイズのインスタンスとIDが重なるため、縮小時は全インスタンスを停止すること
+ */
+@Component(IdSequenceInitializer.BEAN_NAME)
+public class IdSequenceInitializer implements InitializingBean {
+
+    static final String BEAN_NAME = "idSequenceInitializer";
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // 全インスタンスで共有する pg_advisory_xact_lock のキー
+    private static final long LOCK_KEY = 0x49445345514CL;
+
+    // テーブル → シーケンス（エンティティの @SequenceGenerator と一致させる）
+    private static final Map<String, String> SEQUENCES = Map.of("applications", "applications_id_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${application.id.allocation-size:50}")
+    private int allocationSize;
+
+    @Autowired
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+                for (Map.Entry<String, String> entry : SEQUENCES.entrySet()) {
+                    migrate(statement, entry.getKey(), entry.getValue());
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private void migrate(Statement statement, String table, String sequence) throws SQLException {
+        boolean tableExists = queryString(statement, "SELECT to_regclass('" + table + "')::text") != null;
+        if (tableExists) {
+            String identity = queryString(statement, "SELECT attidentity::text FROM pg_attribute"
+                    + " WHERE attrelid = '" + table + "'::regclass AND attname = 'id'");
+            if (identity != null && !identity.isEmpty()) {
+                // IDENTITY の暗黙シーケンス（<table>_id_seq）も削除される
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+                log.info("Dropped IDENTITY from {}.id", table);
+            }
+        }
+        statement.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " INCREMENT BY " + allocationSize);
+        statement.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + allocationSize);
+        if (tableExists) {
+            // 既存IDより後ろから払い出す（シーケンスを戻すことはしない）
+            statement.execute("SELECT setval('" + sequence + "', m) FROM (SELECT max(id) AS m FROM " + table + ") t"
+                    + " WHERE m >= (SELECT last_value FROM " + sequence + ")");
+            statement.execute("ALTER SEQUENCE " + sequence + " OWNED BY " + table + ".id");
+        }
+    }
+
+    private static String queryString(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    /**
+     * EntityManagerFactory をID採番シーケンスの初期化後に作成させる
+     */
+    @Component
+    static class EntityManagerFactoryDependsOnIdSequences extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnIdSequences() {
+            super(BEAN_NAME);
+        }
+    }
+}
@@ -1,12 +1,39 @@
 package com.medicalcare.applicationservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.dto.ApplicationQuery;
+import com.medicalcare.applicationservice.dto.ApplicationSummary;
+import com.medicalcare.applicationservice.dto.BulkTransitionRequest;
+import com.medicalcare.applicationservice.dto.BulkTransitionResult;
+import com.medicalcare.applicationservice.dto.CursorPage;
+import com.medicalcare.applicationservice.dto.ImportJob;
+import com.medicalcare.applicationservice.exception.ApplicationConflictException;
+import com.medicalcare.applicationservice.exception.ApplicationNotFoundException;
+import com.medicalcare.applicationservice.repository.ApplicationSearchRepository.SearchFilter;
+import com.medicalcare.applicationservice.service.ApplicationImportService;
+import com.medicalcare.applicationservice.service.ApplicationSearchService;
 import com.medicalcare.applicationservice.service.ApplicationService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * 申請コントローラー
@@ -14,23 +41,96 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("/api/applications")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = { ApplicationController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG,
+        HttpHeaders.LAST_MODIFIED })
 public class ApplicationController {
 
+    /**
+     * 次ページのカーソルを返すレスポンスヘッダー
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private static final String CSV_VALUE = "text/csv";
+
+    private static final int MAX_USER_ID_PAGE_SIZE = 10000;
+
     private final ApplicationService applicationService;
+    private final ApplicationImportService applicationImportService;
+    private final ApplicationSearchService applicationSearchService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ApplicationController(ApplicationService applicationService) {
+    public ApplicationController(ApplicationService applicationService,
+            ApplicationImportService applicationImportService, ApplicationSearchService applicationSearchService,
+            ObjectMapper objectMapper) {
         this.applicationService = applicationService;
+        this.applicationImportService = applicationImportService;
+        this.applicationSearchService = applicationSearchService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * 全申請を取得
+     * 全申請をキーセットページで取得
+     * 次ページのカーソルは X-Next-Cursor ヘッダーで返す
      */
     @GetMapping
-    public ResponseEntity<List<Application>> getAllApplications() {
-        List<Application> applications = applicationService.findAll();
-        return ResponseEntity.ok(applications);
+    public ResponseEntity<List<ApplicationSummary>> getAllApplications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ApplicationService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return page(applicationService.findAll(cursor, size), ApplicationController::versionKey);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 条件を組み合わせて申請をキーセットページで取得
+     * userId, institutionId, status（複数可）, applicationType, createdFrom/createdTo, submittedFrom/submittedTo
+     * のうち指定したものをすべて満たす申請を返す。fields で返す属性を指定できる（例: fields=id,title,status、
+     * 省略時はサマリーの属性）
+     */
+    @GetMapping("/query")
+    public ResponseEntity<List<Map<String, Object>>> queryApplications(ApplicationQuery query,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ApplicationService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return page(applicationService.query(query, fields, cursor, size), Object::toString);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 申請のタイトル・説明を検索し、関連度の高い順にキーセットページで取得
+     * ステータス・医療機関ID・申請タイプで絞り込める
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ApplicationSummary>> searchApplications(@RequestParam String q,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long institutionId,
+            @RequestParam(required = false) String applicationType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ApplicationService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            Application.ApplicationStatus applicationStatus = status == null ? null
+                    : Application.ApplicationStatus.valueOf(status.toUpperCase());
+            SearchFilter filter = new SearchFilter(applicationStatus, institutionId, applicationType);
+            return page(applicationSearchService.search(q, filter, cursor, size), ApplicationController::versionKey);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 全申請をNDJSONでストリーミング
+     */
+    @GetMapping(value = "/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllApplications() {
+        return ndjson(applicationService::streamAll);
     }
 
     /**
@@ -39,7 +139,7 @@ public class ApplicationController {
     @GetMapping("/{id}")
     public ResponseEntity<Application> getApplicationById(@PathVariable Long id) {
         return applicationService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(this::single)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -49,50 +149,148 @@ public class ApplicationController {
     @GetMapping("/number/{applicationNumber}")
     public ResponseEntity<Application> getApplicationByNumber(@PathVariable String applicationNumber) {
         return applicationService.findByApplicationNumber(applicationNumber)
-                .map(ResponseEntity::ok)
+                .map(this::single)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * ユーザーIDで申請一覧を取得
+     * ユーザーIDで申請一覧をキーセットページで取得
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Application>> getApplicationsByUserId(@PathVariable Long userId) {
-        List<Application> applications = applicationService.findByUserId(userId);
-        return ResponseEntity.ok(applications);
+    public ResponseEntity<List<ApplicationSummary>> getApplicationsByUserId(@PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ApplicationService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return page(applicationService.findByUserId(userId, cursor, size), ApplicationController::versionKey);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
-     * 医療機関IDで申請一覧を取得
+     * ユーザーIDで申請一覧をNDJSONでストリーミング
+     */
+    @GetMapping(value = "/user/{userId}/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamApplicationsByUserId(@PathVariable Long userId) {
+        return ndjson(consumer -> applicationService.streamByUserId(userId, consumer));
+    }
+
+    /**
+     * 医療機関IDで申請一覧をキーセットページで取得
      */
     @GetMapping("/institution/{institutionId}")
-    public ResponseEntity<List<Application>> getApplicationsByInstitutionId(@PathVariable Long institutionId) {
-        List<Application> applications = applicationService.findByInstitutionId(institutionId);
-        return ResponseEntity.ok(applications);
+    public ResponseEntity<List<ApplicationSummary>> getApplicationsByInstitutionId(@PathVariable Long institutionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ApplicationService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return page(applicationService.findByInstitutionId(institutionId, cursor, size),
+                    ApplicationController::versionKey);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 医療機関IDで申請一覧をNDJSONでストリーミング
+     */
+    @GetMapping(value = "/institution/{institutionId}/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamApplicationsByInstitutionId(
+            @PathVariable Long institutionId) {
+        return ndjson(consumer -> applicationService.streamByInstitutionId(institutionId, consumer));
     }
 
     /**
-     * ステータスで申請一覧を取得
+     * ステータスで申請一覧をキーセットページで取得
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Application>> getApplicationsByStatus(@PathVariable String status) {
+    public ResponseEntity<List<ApplicationSummary>> getApplicationsByStatus(@PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ApplicationService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            Application.ApplicationStatus applicationStatus = Application.ApplicationStatus
+                    .valueOf(status.toUpperCase());
+            return page(applicationService.findByStatus(applicationStatus, cursor, size),
+                    ApplicationController::versionKey);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * ステータスで申請一覧をNDJSONでストリーミング
+     */
+    @GetMapping(value = "/status/{status}/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamApplicationsByStatus(@PathVariable String status) {
         try {
             Application.ApplicationStatus applicationStatus = Application.ApplicationStatus
                     .valueOf(status.toUpperCase());
-            List<Application> applications = applicationService.findByStatus(applicationStatus);
-            return ResponseEntity.ok(applications);
+            return ndjson(consumer -> applicationService.streamByStatus(applicationStatus, consumer));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     /**
-     * 申請タイプで申請一覧を取得
+     * 申請タイプで申請一覧をキーセットページで取得
      */
     @GetMapping("/type/{applicationType}")
-    public ResponseEntity<List<Application>> getApplicationsByType(@PathVariable String applicationType) {
-        List<Application> applications = applicationService.findByApplicationType(applicationType);
-        return ResponseEntity.ok(applications);
+    public ResponseEntity<List<ApplicationSummary>> getApplicationsByType(@PathVariable String applicationType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ApplicationService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return page(applicationService.findByApplicationType(applicationType, cursor, size),
+                    ApplicationController::versionKey);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 申請タイプで申請一覧をNDJSONでストリーミング
+     */
+    @GetMapping(value = "/type/{applicationType}/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamApplicationsByType(@PathVariable String applicationType) {
+        return ndjson(consumer -> applicationService.streamByApplicationType(applicationType, consumer));
+    }
+
+    /**
+     * 医療機関IDごとのステータス別件数を取得
+     */
+    @GetMapping("/counts/institution/{institutionId}")
+    public ResponseEntity<Map<Application.ApplicationStatus, Long>> countApplicationsByInstitution(
+            @PathVariable Long institutionId) {
+        return ResponseEntity.ok(applicationService.countByInstitution(institutionId));
+    }
+
+    /**
+     * 医療機関に申請したことのあるユーザーIDを取得（通知サービスの一斉配信で宛先の解決に使う）
+     * afterUserId より大きいIDを昇順に size 件返す。次のページは最後のIDを afterUserId に指定する
+     */
+    @GetMapping("/institution/{institutionId}/user-ids")
+    public ResponseEntity<List<Long>> getUserIdsByInstitution(@PathVariable Long institutionId,
+            @RequestParam(defaultValue = "0") Long afterUserId,
+            @RequestParam(defaultValue = "10000") int size) {
+        return ResponseEntity.ok(applicationService.findUserIdsByInstitution(institutionId, afterUserId,
+                Math.min(Math.max(size, 1), MAX_USER_ID_PAGE_SIZE)));
+    }
+
+    /**
+     * 申請タイプごとのステータス別件数を取得
+     */
+    @GetMapping("/counts/type/{applicationType}")
+    public ResponseEntity<Map<Application.ApplicationStatus, Long>> countApplicationsByType(
+            @PathVariable String applicationType) {
+        return ResponseEntity.ok(applicationService.countByApplicationType(applicationType));
+    }
+
+    /**
+     * ステータス別件数を applications から再集計（他のインスタンスが実行中の場合は 409）
+     */
+    @PostMapping("/counts/reconcile")
+    public ResponseEntity<Void> reconcileCounts() {
+        return applicationService.reconcileCounts()
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
 
     /**
@@ -108,6 +306,41 @@ public class ApplicationController {
         }
     }
 
+    /**
+     * 申請を一括インポート（CSV または NDJSON）
+     * 受け付けたジョブを 202 で返し、進捗は Location ヘッダーのURLで参照する
+     */
+    @PostMapping(value = "/import", consumes = { CSV_VALUE, NDJSON_VALUE })
+    public ResponseEntity<ImportJob> importApplications(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) {
+        ApplicationImportService.Format format = MediaType.parseMediaType(contentType)
+                .isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))
+                        ? ApplicationImportService.Format.CSV
+                        : ApplicationImportService.Format.NDJSON;
+        try {
+            ImportJob job = applicationImportService.submit(request.getInputStream(), format);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/applications/import/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * インポートジョブの進捗と行単位のエラーを取得
+     */
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable String jobId) {
+        return applicationImportService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * 申請を更新
      */
@@ -136,54 +369,148 @@ public class ApplicationController {
 
     /**
      * 申請を提出
+     * version を指定した場合は、そのバージョンから変更されていないときのみ遷移する
      */
     @PostMapping("/{id}/submit")
-    public ResponseEntity<Application> submitApplication(@PathVariable Long id) {
-        try {
-            Application submitted = applicationService.submit(id);
-            return ResponseEntity.ok(submitted);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build();
-        }
+    public ResponseEntity<Application> submitApplication(@PathVariable Long id,
+            @RequestParam(required = false) Long version) {
+        return transition(() -> applicationService.submit(id, version));
     }
 
     /**
      * 申請を承認
      */
     @PostMapping("/{id}/approve")
-    public ResponseEntity<Application> approveApplication(@PathVariable Long id) {
-        try {
-            Application approved = applicationService.approve(id);
-            return ResponseEntity.ok(approved);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build();
-        }
+    public ResponseEntity<Application> approveApplication(@PathVariable Long id,
+            @RequestParam(required = false) Long version) {
+        return transition(() -> applicationService.approve(id, version));
     }
 
     /**
      * 申請を却下
      */
     @PostMapping("/{id}/reject")
-    public ResponseEntity<Application> rejectApplication(@PathVariable Long id, @RequestBody RejectionRequest request) {
+    public ResponseEntity<Application> rejectApplication(@PathVariable Long id, @RequestBody RejectionRequest request,
+            @RequestParam(required = false) Long version) {
+        return transition(() -> applicationService.reject(id, request.getRejectionReason(), version));
+    }
+
+    /**
+     * 申請を取り下げ
+     */
+    @PostMapping("/{id}/withdraw")
+    public ResponseEntity<Application> withdrawApplication(@PathVariable Long id,
+            @RequestParam(required = false) Long version) {
+        return transition(() -> applicationService.withdraw(id, version));
+    }
+
+    /**
+     * 申請を一括承認
+     * 対象は ids、または institutionId / status の条件で指定し、ID単位の結果を返す
+     */
+    @PostMapping("/bulk/approve")
+    public ResponseEntity<BulkTransitionResult> bulkApproveApplications(@RequestBody BulkTransitionRequest request) {
+        return bulkTransition(() -> applicationService.bulkApprove(request));
+    }
+
+    /**
+     * 申請を一括却下
+     */
+    @PostMapping("/bulk/reject")
+    public ResponseEntity<BulkTransitionResult> bulkRejectApplications(@RequestBody BulkTransitionRequest request) {
+        return bulkTransition(() -> applicationService.bulkReject(request));
+    }
+
+    /**
+     * 申請を一括取り下げ
+     */
+    @PostMapping("/bulk/withdraw")
+    public ResponseEntity<BulkTransitionResult> bulkWithdrawApplications(@RequestBody BulkTransitionRequest request) {
+        return bulkTransition(() -> applicationService.bulkWithdraw(request));
+    }
+
+    /**
+     * ステータス遷移の結果をレスポンスに変換
+     * 存在しない場合は404、同時更新の競合は409、遷移できないステータスは400
+     */
+    private ResponseEntity<Application> transition(Supplier<Application> action) {
         try {
-            Application rejected = applicationService.reject(id, request.getRejectionReason());
-            return ResponseEntity.ok(rejected);
+            return ResponseEntity.ok(action.get());
+        } catch (ApplicationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (ApplicationConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     /**
-     * 申請を取り下げ
+     * 一括遷移の結果をレスポンスに変換
+     * 対象の指定が不正な場合は400、再試行しても競合が解消しない場合は409
      */
-    @PostMapping("/{id}/withdraw")
-    public ResponseEntity<Application> withdrawApplication(@PathVariable Long id) {
+    private ResponseEntity<BulkTransitionResult> bulkTransition(Supplier<BulkTransitionResult> action) {
         try {
-            Application withdrawn = applicationService.withdraw(id);
-            return ResponseEntity.ok(withdrawn);
-        } catch (RuntimeException e) {
+            return ResponseEntity.ok(action.get());
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (ApplicationConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * 単一の申請をレスポンスに変換
+     * バージョンから強いETag、updatedAt から Last-Modified を付け、条件付きGETで一致した場合は
+     * 本文をシリアライズせずに 304 を返す（判定は HttpEntityMethodProcessor が行う）
+     */
+    private ResponseEntity<Application> single(Application application) {
+        long version = application.getVersion() == null ? 0 : application.getVersion();
+        return ResponseEntity.ok()
+                .eTag(application.getId() + "-" + version)
+                .lastModified(application.getUpdatedAt().atZone(ZoneId.systemDefault()))
+                .body(application);
+    }
+
+    /**
+     * キーセットページをレスポンスに変換
+     * 各要素のバージョンと次ページのカーソルから弱いETagを計算し、本文をシリアライズせずに比較できるようにする
+     */
+    private <T> ResponseEntity<List<T>> page(CursorPage<T> page, Function<? super T, String> versionKey) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(ListETag.of(page.getItems(), versionKey, page.getNextCursor()));
+        if (page.hasNext()) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
         }
+        return builder.body(page.getItems());
+    }
+
+    private static String versionKey(ApplicationSummary application) {
+        return application.getId() + "-" + application.getVersion();
+    }
+
+    /**
+     * 申請を1行1JSONでレスポンスへ直接書き出す
+     * 書き出し済みの行はバッファに残らないため、件数に関わらずメモリ使用量は一定
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<Application>> source) {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            source.accept(application -> {
+                try {
+                    objectMapper.writeValue(generator, application);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
     }
 
     /**
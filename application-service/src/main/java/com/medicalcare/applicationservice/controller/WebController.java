@@ -1,6 +1,6 @@
 package com.medicalcare.applicationservice.controller;
 
-import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.dto.ApplicationSummary;
 import com.medicalcare.applicationservice.service.ApplicationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -19,7 +19,8 @@ public class WebController {
 
     @GetMapping("/applications")
     public String applications(Model model) {
-        List<Application> applications = applicationService.findAll();
+        List<ApplicationSummary> applications = applicationService
+                .findAll(null, ApplicationService.DEFAULT_PAGE_SIZE).getItems();
         model.addAttribute("applications", applications);
         return "applications";
     }
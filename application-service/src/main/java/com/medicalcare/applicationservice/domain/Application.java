@@ -8,11 +8,22 @@ import java.time.LocalDateTime;
  * 医療機関からの申請情報を管理
  */
 @Entity
-@Table(name = "applications")
+@Table(name = "applications", indexes = {
+        @Index(name = "idx_applications_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_applications_user_created_at", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_applications_institution_created_at", columnList = "institution_id, created_at, id"),
+        @Index(name = "idx_applications_status_created_at", columnList = "status, created_at, id"),
+        @Index(name = "idx_applications_type_created_at", columnList = "application_type, created_at, id"),
+        @Index(name = "idx_applications_institution_status_created_at",
+                columnList = "institution_id, status, created_at, id"),
+        @Index(name = "idx_applications_submitted_at", columnList = "submitted_at, id"),
+        @Index(name = "idx_applications_institution_user", columnList = "institution_id, user_id")
+})
 public class Application {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "applications_id_seq")
+    @SequenceGenerator(name = "applications_id_seq", sequenceName = "applications_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "application_number", unique = true, nullable = false)
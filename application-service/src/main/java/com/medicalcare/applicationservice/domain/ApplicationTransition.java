@@ -0,0 +1,50 @@
+package com.medicalcare.applicationservice.domain;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 申請ステータス遷移の定義
+ * 遷移元として許可されるステータス、遷移先ステータス、遷移時に記録する日時カラムを保持
+ */
+public enum ApplicationTransition {
+
+    SUBMIT(EnumSet.of(Application.ApplicationStatus.DRAFT),
+            Application.ApplicationStatus.SUBMITTED, "submitted_at"),
+    APPROVE(EnumSet.of(Application.ApplicationStatus.SUBMITTED, Application.ApplicationStatus.REVIEWING),
+            Application.ApplicationStatus.APPROVED, "approved_at"),
+    REJECT(EnumSet.of(Application.ApplicationStatus.SUBMITTED, Application.ApplicationStatus.REVIEWING),
+            Application.ApplicationStatus.REJECTED, "rejected_at"),
+    WITHDRAW(EnumSet.of(Application.ApplicationStatus.DRAFT, Application.ApplicationStatus.SUBMITTED),
+            Application.ApplicationStatus.WITHDRAWN, null);
+
+    private final Set<Application.ApplicationStatus> allowedFrom;
+    private final Application.ApplicationStatus target;
+    private final String timestampColumn;
+
+    ApplicationTransition(Set<Application.ApplicationStatus> allowedFrom, Application.ApplicationStatus target,
+            String timestampColumn) {
+        this.allowedFrom = allowedFrom;
+        this.target = target;
+        this.timestampColumn = timestampColumn;
+    }
+
+    public Set<Application.ApplicationStatus> getAllowedFrom() {
+        return allowedFrom;
+    }
+
+    public Application.ApplicationStatus getTarget() {
+        return target;
+    }
+
+    /**
+     * 遷移日時を記録するカラム名（記録しない場合はnull）
+     */
+    public String getTimestampColumn() {
+        return timestampColumn;
+    }
+
+    public boolean isAllowedFrom(Application.ApplicationStatus status) {
+        return allowedFrom.contains(status);
+    }
+}
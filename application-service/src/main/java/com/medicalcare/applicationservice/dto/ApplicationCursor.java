@@ -0,0 +1,71 @@
+package com.medicalcare.applicationservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 申請カーソル
+ * (createdAt, id) の組を不透明な文字列としてエンコード・デコードする
+ */
+public final class ApplicationCursor {
+
+    /**
+     * 先頭ページを表す番兵値（PostgreSQLのtimestamp範囲内に収まる最大値）
+     */
+    public static final ApplicationCursor FIRST = new ApplicationCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public ApplicationCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * 申請の位置を指すカーソルを生成
+     */
+    public static ApplicationCursor of(ApplicationSummary application) {
+        return new ApplicationCursor(application.getCreatedAt(), application.getId());
+    }
+
+    /**
+     * カーソル文字列をデコード（null・空文字の場合は先頭ページ）
+     *
+     * @throws IllegalArgumentException カーソルが不正な場合
+     */
+    public static ApplicationCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return FIRST;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new ApplicationCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
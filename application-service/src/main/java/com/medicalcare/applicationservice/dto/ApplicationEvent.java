@@ -0,0 +1,136 @@
+package com.medicalcare.applicationservice.dto;
+
+import com.medicalcare.applicationservice.domain.Application;
+
+import java.time.LocalDateTime;
+
+/**
+ * 申請ライフサイクルイベント
+ * ステータス遷移と同じトランザクションでアウトボックスに書き込み、通知・監査サービスへ非同期に配信する。
+ * eventId は配信先での重複排除キー（少なくとも1回配信のため、同じイベントが複数回届くことがある）
+ */
+public class ApplicationEvent {
+
+    private String eventId;
+
+    /**
+     * APPLICATION_ + 遷移後のステータス（例: APPLICATION_APPROVED）
+     */
+    private String eventType;
+
+    private Long applicationId;
+
+    private String applicationNumber;
+
+    private Long institutionId;
+
+    private Long userId;
+
+    private String applicationType;
+
+    private String title;
+
+    private Application.ApplicationStatus previousStatus;
+
+    private Application.ApplicationStatus status;
+
+    private String rejectionReason;
+
+    private LocalDateTime occurredAt;
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public String getApplicationNumber() {
+        return applicationNumber;
+    }
+
+    public void setApplicationNumber(String applicationNumber) {
+        this.applicationNumber = applicationNumber;
+    }
+
+    public Long getInstitutionId() {
+        return institutionId;
+    }
+
+    public void setInstitutionId(Long institutionId) {
+        this.institutionId = institutionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getApplicationType() {
+        return applicationType;
+    }
+
+    public void setApplicationType(String applicationType) {
+        this.applicationType = applicationType;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Application.ApplicationStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(Application.ApplicationStatus previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public Application.ApplicationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Application.ApplicationStatus status) {
+        this.status = status;
+    }
+
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+
+    public void setRejectionReason(String rejectionReason) {
+        this.rejectionReason = rejectionReason;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,100 @@
+package com.medicalcare.applicationservice.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 申請の検索条件
+ * 指定した項目のみを AND で組み合わせる。日時の範囲は from 以上 to 未満
+ */
+public class ApplicationQuery {
+
+    private Long userId;
+
+    private Long institutionId;
+
+    /**
+     * いずれかに一致するステータス
+     */
+    private List<String> status;
+
+    private String applicationType;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime submittedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime submittedTo;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getInstitutionId() {
+        return institutionId;
+    }
+
+    public void setInstitutionId(Long institutionId) {
+        this.institutionId = institutionId;
+    }
+
+    public List<String> getStatus() {
+        return status;
+    }
+
+    public void setStatus(List<String> status) {
+        this.status = status;
+    }
+
+    public String getApplicationType() {
+        return applicationType;
+    }
+
+    public void setApplicationType(String applicationType) {
+        this.applicationType = applicationType;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    public LocalDateTime getSubmittedFrom() {
+        return submittedFrom;
+    }
+
+    public void setSubmittedFrom(LocalDateTime submittedFrom) {
+        this.submittedFrom = submittedFrom;
+    }
+
+    public LocalDateTime getSubmittedTo() {
+        return submittedTo;
+    }
+
+    public void setSubmittedTo(LocalDateTime submittedTo) {
+        this.submittedTo = submittedTo;
+    }
+}
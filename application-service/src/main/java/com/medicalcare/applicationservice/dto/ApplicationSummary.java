@@ -0,0 +1,114 @@
+package com.medicalcare.applicationservice.dto;
+
+import com.medicalcare.applicationservice.domain.Application;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 申請サマリー
+ * 一覧表示用に、説明・却下理由（TEXT 列）を除いた列だけを保持する。
+ * 全項目は単一取得（GET /api/applications/{id}）で返す
+ */
+public class ApplicationSummary {
+
+    /**
+     * サマリーに含める属性名（宣言順）
+     */
+    public static final List<String> FIELDS = List.of("id", "applicationNumber", "institutionId", "userId",
+            "applicationType", "title", "status", "submittedAt", "approvedAt", "rejectedAt", "createdAt",
+            "updatedAt", "version");
+
+    private final Long id;
+    private final String applicationNumber;
+    private final Long institutionId;
+    private final Long userId;
+    private final String applicationType;
+    private final String title;
+    private final Application.ApplicationStatus status;
+    private final LocalDateTime submittedAt;
+    private final LocalDateTime approvedAt;
+    private final LocalDateTime rejectedAt;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final Long version;
+
+    public ApplicationSummary(Long id, String applicationNumber, Long institutionId, Long userId,
+            String applicationType, String title, Application.ApplicationStatus status, LocalDateTime submittedAt,
+            LocalDateTime approvedAt, LocalDateTime rejectedAt, LocalDateTime createdAt, LocalDateTime updatedAt,
+            Long version) {
+        this.id = id;
+        this.applicationNumber = applicationNumber;
+        this.institutionId = institutionId;
+        this.userId = userId;
+        this.applicationType = applicationType;
+        this.title = title;
+        this.status = status;
+        this.submittedAt = submittedAt;
+        this.approvedAt = approvedAt;
+        this.rejectedAt = rejectedAt;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
+    public static ApplicationSummary of(Application application) {
+        return new ApplicationSummary(application.getId(), application.getApplicationNumber(),
+                application.getInstitutionId(), application.getUserId(), application.getApplicationType(),
+                application.getTitle(), application.getStatus(), application.getSubmittedAt(),
+                application.getApprovedAt(), application.getRejectedAt(), application.getCreatedAt(),
+                application.getUpdatedAt(), application.getVersion());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getApplicationNumber() {
+        return applicationNumber;
+    }
+
+    public Long getInstitutionId() {
+        return institutionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getApplicationType() {
+        return applicationType;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Application.ApplicationStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getApprovedAt() {
+        return approvedAt;
+    }
+
+    public LocalDateTime getRejectedAt() {
+        return rejectedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
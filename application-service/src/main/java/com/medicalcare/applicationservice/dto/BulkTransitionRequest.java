@@ -0,0 +1,58 @@
+package com.medicalcare.applicationservice.dto;
+
+import java.util.List;
+
+/**
+ * 一括ステータス遷移リクエスト
+ * 対象は ids で直接指定するか、医療機関ID・ステータスの条件で指定する
+ */
+public class BulkTransitionRequest {
+
+    private List<Long> ids;
+
+    private Long institutionId;
+
+    private String status;
+
+    private String rejectionReason;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public Long getInstitutionId() {
+        return institutionId;
+    }
+
+    public void setInstitutionId(Long institutionId) {
+        this.institutionId = institutionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+
+    public void setRejectionReason(String rejectionReason) {
+        this.rejectionReason = rejectionReason;
+    }
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return institutionId != null || status != null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.medicalcare.applicationservice.dto;
+
+import com.medicalcare.applicationservice.domain.Application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一括ステータス遷移の結果
+ * 件数の集計とID単位の結果を保持
+ */
+public class BulkTransitionResult {
+
+    private int transitioned;
+
+    private int failed;
+
+    private final List<Item> results = new ArrayList<>();
+
+    public void addTransitioned(Long id, Application.ApplicationStatus previousStatus,
+            Application.ApplicationStatus status) {
+        transitioned++;
+        results.add(new Item(id, Outcome.TRANSITIONED, previousStatus, status));
+    }
+
+    public void addFailed(Long id, Outcome outcome, Application.ApplicationStatus status) {
+        failed++;
+        results.add(new Item(id, outcome, status, status));
+    }
+
+    public int getTransitioned() {
+        return transitioned;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<Item> getResults() {
+        return results;
+    }
+
+    /**
+     * ID単位の結果
+     */
+    public enum Outcome {
+        TRANSITIONED, // 遷移済み
+        NOT_FOUND, // 申請が存在しない
+        INVALID_STATUS // 現在のステータスから遷移できない
+    }
+
+    /**
+     * 1件分の結果（遷移しなかった場合、previousStatus と status はどちらも現在のステータス）
+     */
+    public static class Item {
+
+        private final Long id;
+        private final Outcome outcome;
+        private final Application.ApplicationStatus previousStatus;
+        private final Application.ApplicationStatus status;
+
+        public Item(Long id, Outcome outcome, Application.ApplicationStatus previousStatus,
+                Application.ApplicationStatus status) {
+            this.id = id;
+            this.outcome = outcome;
+            this.previousStatus = previousStatus;
+            this.status = status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public Application.ApplicationStatus getPreviousStatus() {
+            return previousStatus;
+        }
+
+        public Application.ApplicationStatus getStatus() {
+            return status;
+        }
+    }
+}
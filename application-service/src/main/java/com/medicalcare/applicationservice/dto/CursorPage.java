@@ -0,0 +1,33 @@
+package com.medicalcare.applicationservice.dto;
+
+import java.util.List;
+
+/**
+ * カーソルページ
+ * キーセットページネーションの1ページ分の結果と次ページのカーソルを保持
+ */
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * 次ページのカーソル（最終ページの場合はnull）
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.medicalcare.applicationservice.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 一括インポートジョブの進捗と結果
+ * インポート処理のスレッドのみが更新し、進捗の参照は任意のスレッドから行える
+ */
+public class ImportJob {
+
+    // 詳細を返すエラーは先頭のみ（rejected は全件を数える）
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final String id;
+    private final String format;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long processed;
+    private volatile long imported;
+    private volatile long rejected;
+    private volatile String failure;
+
+    private final List<RowError> errors = new CopyOnWriteArrayList<>();
+
+    public ImportJob(String id, String format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    public void addImported(int count) {
+        imported += count;
+        processed += count;
+    }
+
+    public void reject(long row, String message) {
+        rejected++;
+        processed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    /**
+     * 読み込めない入力などで中断（それまでにインポートした行は残る）
+     */
+    public void fail(String message) {
+        failure = message;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * 開始からのインポート速度（行/秒）
+     */
+    public long getRowsPerSecond() {
+        LocalDateTime start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(Duration.between(start, end).toMillis(), 1);
+        return processed * 1000 / millis;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * ジョブの状態
+     */
+    public enum Status {
+        QUEUED, // 待機中
+        RUNNING, // 実行中
+        COMPLETED, // 完了
+        FAILED // 中断
+    }
+
+    /**
+     * 取り込めなかった行（行番号はデータ行の1始まり）
+     */
+    public static class RowError {
+
+        private final long row;
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
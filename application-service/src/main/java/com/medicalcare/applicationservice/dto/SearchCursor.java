@@ -0,0 +1,64 @@
+package com.medicalcare.applicationservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 検索カーソル
+ * (rank, id) の組を不透明な文字列としてエンコード・デコードする
+ */
+public final class SearchCursor {
+
+    /**
+     * 先頭ページを表す番兵値
+     */
+    public static final SearchCursor FIRST = new SearchCursor(Float.MAX_VALUE, Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '|';
+
+    private final float rank;
+    private final long id;
+
+    public SearchCursor(float rank, long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    /**
+     * カーソル文字列をデコード（null・空文字の場合は先頭ページ）
+     *
+     * @throws IllegalArgumentException カーソルが不正な場合
+     */
+    public static SearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return FIRST;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new SearchCursor(Float.parseFloat(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * rank は float の文字列表現で往復させ、DB の real 値と完全に一致させる
+     */
+    public String encode() {
+        String raw = Float.toString(rank) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,16 @@
+package com.medicalcare.applicationservice.exception;
+
+/**
+ * 同時更新の競合が解消できなかった場合の例外
+ * 指定バージョンの不一致、またはリトライ上限到達時に発生
+ */
+public class ApplicationConflictException extends RuntimeException {
+
+    public ApplicationConflictException(String message) {
+        super(message);
+    }
+
+    public ApplicationConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
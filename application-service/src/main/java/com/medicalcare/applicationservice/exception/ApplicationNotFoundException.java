@@ -0,0 +1,11 @@
+package com.medicalcare.applicationservice.exception;
+
+/**
+ * 申請が存在しない場合の例外
+ */
+public class ApplicationNotFoundException extends RuntimeException {
+
+    public ApplicationNotFoundException(Long id) {
+        super("Application not found with id: " + id);
+    }
+}
@@ -0,0 +1,11 @@
+package com.medicalcare.applicationservice.exception;
+
+/**
+ * 現在のステータスから要求されたステータス遷移ができない場合の例外
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    public InvalidStatusTransitionException(String message) {
+        super(message);
+    }
+}
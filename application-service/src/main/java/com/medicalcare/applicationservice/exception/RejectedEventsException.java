@@ -0,0 +1,22 @@
+package com.medicalcare.applicationservice.exception;
+
+import java.util.Map;
+
+/**
+ * 配信先が一部のイベントを恒久的に拒否した場合の例外（検証エラーなど、再配信しても受け付けられないもの）
+ * 拒否されなかったイベントは配信済み
+ */
+public class RejectedEventsException extends RuntimeException {
+
+    // 配信したイベント一覧での位置 → 拒否理由
+    private final Map<Integer, String> rejected;
+
+    public RejectedEventsException(Map<Integer, String> rejected) {
+        super(rejected.size() + " events rejected");
+        this.rejected = Map.copyOf(rejected);
+    }
+
+    public Map<Integer, String> getRejected() {
+        return rejected;
+    }
+}
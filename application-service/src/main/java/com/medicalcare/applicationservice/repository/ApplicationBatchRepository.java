@@ -0,0 +1,69 @@
+package com.medicalcare.applicationservice.repository;
+
+import com.medicalcare.applicationservice.domain.Application;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 申請の一括登録リポジトリ
+ * 永続化コンテキストを経由せず JDBC バッチで INSERT する（reWriteBatchedInserts により複数行INSERTになる）。
+ * ID は Hibernate と同じ applications_id_seq から採番する
+ */
+@Repository
+public class ApplicationBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO applications (id, application_number, institution_id,"
+            + " user_id, application_type, title, description, status, submitted_at, approved_at, rejected_at,"
+            + " rejection_reason, created_at, updated_at, version)"
+            + " VALUES (nextval('applications_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ApplicationBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<Application> applications) {
+        if (applications.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Application application = applications.get(i);
+                ps.setString(1, application.getApplicationNumber());
+                ps.setLong(2, application.getInstitutionId());
+                ps.setLong(3, application.getUserId());
+                ps.setString(4, application.getApplicationType());
+                ps.setString(5, application.getTitle());
+                ps.setString(6, application.getDescription());
+                ps.setString(7, application.getStatus().name());
+                ps.setTimestamp(8, timestamp(application.getSubmittedAt()));
+                ps.setTimestamp(9, timestamp(application.getApprovedAt()));
+                ps.setTimestamp(10, timestamp(application.getRejectedAt()));
+                ps.setString(11, application.getRejectionReason());
+                ps.setTimestamp(12, timestamp(application.getCreatedAt()));
+                ps.setTimestamp(13, timestamp(application.getUpdatedAt()));
+                ps.setLong(14, application.getVersion());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return applications.size();
+            }
+        });
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.medicalcare.applicationservice.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 申請イベントのアウトボックス（application_outbox）
+ * 1イベント・1配信先ごとに1行を持ち、配信済み（published_at）・配信停止（failed_at）を記録する。
+ * 未配信の行は複数インスタンスのリレーが FOR UPDATE SKIP LOCKED で重複なく取得し、
+ * 取得時に next_attempt_at をリース期限まで進めることで、配信中にリレーが停止しても期限後に再取得される
+ */
+@Repository
+public class ApplicationOutboxRepository {
+
+    private static final String TABLE = "application_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ApplicationOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createTableIfNotExists() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "id bigserial PRIMARY KEY, "
+                + "event_id varchar(36) NOT NULL, "
+                + "destination varchar(32) NOT NULL, "
+                + "event_type varchar(64) NOT NULL, "
+                + "aggregate_id bigint NOT NULL, "
+                + "payload text NOT NULL, "
+                + "created_at timestamptz NOT NULL DEFAULT now(), "
+                + "attempts integer NOT NULL DEFAULT 0, "
+                + "next_attempt_at timestamptz NOT NULL DEFAULT now(), "
+                + "published_at timestamptz, "
+                + "failed_at timestamptz, "
+                + "last_error text, "
+                + "UNIQUE (event_id, destination))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_application_outbox_pending ON " + TABLE
+                + " (destination, next_attempt_at, id) WHERE published_at IS NULL AND failed_at IS NULL");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_application_outbox_published ON " + TABLE
+                + " (published_at) WHERE published_at IS NOT NULL");
+    }
+
+    /**
+     * イベントを配信先ごとに追加する（呼び出し側のトランザクション内で実行すること）
+     */
+    public void append(List<Message> messages) {
+        List<Object[]> batchArgs = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            batchArgs.add(new Object[] { message.eventId(), message.destination(), message.eventType(),
+                    message.aggregateId(), message.payload() });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + TABLE
+                + " (event_id, destination, event_type, aggregate_id, payload) VALUES (?, ?, ?, ?, ?)", batchArgs);
+    }
+
+    /**
+     * 配信先の未配信イベントを古い順に最大 limit 件取得し、リース期限まで他のリレーから見えなくする
+     */
+    public List<Pending> claim(String destination, int limit, Duration lease) {
+        return jdbcTemplate.query("UPDATE " + TABLE + " o SET attempts = o.attempts + 1,"
+                + " next_attempt_at = now() + ?::interval"
+                + " FROM (SELECT id FROM " + TABLE + " WHERE destination = ? AND published_at IS NULL"
+                + " AND failed_at IS NULL AND next_attempt_at <= now() ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) c"
+                + " WHERE o.id = c.id RETURNING o.id, o.event_id, o.payload, o.created_at, o.attempts",
+                (rs, rowNum) -> new Pending(rs.getLong("id"), rs.getString("event_id"), rs.getString("payload"),
+                        rs.getTimestamp("created_at").toInstant(), rs.getInt("attempts")),
+                lease.toMillis() + " milliseconds", destination, limit);
+    }
+
+    public void markPublished(Collection<Long> ids) {
+        jdbcTemplate.update("UPDATE " + TABLE + " SET published_at = now(), last_error = NULL"
+                + " WHERE id = ANY (?::bigint[])", arrayLiteral(ids));
+    }
+
+    /**
+     * 配信失敗を記録し、retryAt 以降に再試行する（retryAt が null の場合は配信を停止する）
+     */
+    public void markFailed(Collection<Long> ids, String error, Instant retryAt) {
+        if (retryAt == null) {
+            jdbcTemplate.update("UPDATE " + TABLE + " SET failed_at = now(), last_error = ?"
+                    + " WHERE id = ANY (?::bigint[])", error, arrayLiteral(ids));
+        } else {
+            jdbcTemplate.update("UPDATE " + TABLE + " SET next_attempt_at = ?, last_error = ?"
+                    + " WHERE id = ANY (?::bigint[])", Timestamp.from(retryAt), error, arrayLiteral(ids));
+        }
+    }
+
+    /**
+     * 配信先ごとの未配信件数と最も古い未配信イベントの作成日時
+     */
+    public Map<String, Backlog> findBacklog() {
+        Map<String, Backlog> backlog = new HashMap<>();
+        jdbcTemplate.query("SELECT destination, count(*), min(created_at) FROM " + TABLE
+                + " WHERE published_at IS NULL AND failed_at IS NULL GROUP BY destination", rs -> {
+                    backlog.put(rs.getString(1), new Backlog(rs.getLong(2), rs.getTimestamp(3).toInstant()));
+                });
+        return backlog;
+    }
+
+    /**
+     * cutoff より前に配信済みになった行を削除する
+     */
+    public int deletePublishedBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE published_at < ?", Timestamp.from(cutoff));
+    }
+
+    private static String arrayLiteral(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    /**
+     * 追加する1配信先分のイベント
+     */
+    public record Message(String eventId, String destination, String eventType, Long aggregateId,
+            String payload) {
+    }
+
+    /**
+     * 取得した未配信イベント（attempts は今回の試行を含む回数）
+     */
+    public record Pending(Long id, String eventId, String payload, Instant createdAt, int attempts) {
+    }
+
+    /**
+     * 配信先の未配信件数と最も古い未配信イベントの作成日時
+     */
+    public record Backlog(long pending, Instant oldestCreatedAt) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.medicalcare.applicationservice.repository;
+
+import com.medicalcare.applicationservice.domain.Application;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 申請の条件検索（ApplicationRepository のフラグメント）
+ */
+public interface ApplicationQueryRepository {
+
+    /**
+     * 条件に一致する申請のうち (createdAt, id) がカーソル位置より前のものを、新しい順に最大 limit 件取得する
+     * 結果は指定した属性だけを読み込んだ「属性名 → 値」のマップで、キーセット用に id と createdAt は常に含む
+     *
+     * @param fields 取得する属性名（空の場合は ApplicationSummary.FIELDS）
+     * @throws IllegalArgumentException 存在しない属性名を指定した場合
+     */
+    List<Map<String, Object>> findPageMatching(Specification<Application> specification, List<String> fields,
+            LocalDateTime createdAt, Long id, int limit);
+}
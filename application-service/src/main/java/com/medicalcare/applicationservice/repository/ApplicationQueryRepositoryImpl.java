@@ -0,0 +1,114 @@
+package com.medicalcare.applicationservice.repository;
+
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.dto.ApplicationSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 申請の条件検索の実装
+ * Specification の条件とキーセット条件を1つの Criteria クエリにまとめ、指定した列だけを SELECT する
+ */
+public class ApplicationQueryRepositoryImpl implements ApplicationQueryRepository {
+
+    private static final List<String> KEYSET_FIELDS = List.of("id", "createdAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile List<String> allFields;
+
+    @Override
+    public List<Map<String, Object>> findPageMatching(Specification<Application> specification, List<String> fields,
+            LocalDateTime createdAt, Long id, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Application> root = query.from(Application.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : selectedFields(fields)) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+
+        // ApplicationRepository.KEYSET_CONDITION と同じ条件（先頭の createdAt 条件はインデックス範囲スキャン用）
+        Path<LocalDateTime> createdAtPath = root.get("createdAt");
+        Path<Long> idPath = root.get("id");
+        Predicate keyset = cb.and(cb.lessThanOrEqualTo(createdAtPath, createdAt),
+                cb.or(cb.lessThan(createdAtPath, createdAt),
+                        cb.and(cb.equal(createdAtPath, createdAt), cb.lessThan(idPath, id))));
+        Predicate criteria = specification.toPredicate(root, query, cb);
+        query.where(criteria == null ? keyset : cb.and(criteria, keyset));
+        query.orderBy(cb.desc(createdAtPath), cb.desc(idPath));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 取得する属性名（指定順、キーセット用の属性を補う）
+     */
+    private Set<String> selectedFields(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return new LinkedHashSet<>(ApplicationSummary.FIELDS);
+        }
+        List<String> available = allFields();
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (!available.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            selected.add(name);
+        }
+        selected.addAll(KEYSET_FIELDS);
+        return selected;
+    }
+
+    /**
+     * 単一値の永続属性（エンティティでの宣言順）
+     */
+    private List<String> allFields() {
+        List<String> fields = allFields;
+        if (fields == null) {
+            Set<String> attributes = entityManager.getMetamodel().entity(Application.class)
+                    .getSingularAttributes().stream()
+                    .map(Attribute::getName)
+                    .collect(Collectors.toSet());
+            fields = Arrays.stream(Application.class.getDeclaredFields())
+                    .map(Field::getName)
+                    .filter(attributes::contains)
+                    .toList();
+            allFields = fields;
+        }
+        return fields;
+    }
+}
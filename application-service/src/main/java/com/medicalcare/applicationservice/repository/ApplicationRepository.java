@@ -1,20 +1,48 @@
 package com.medicalcare.applicationservice.repository;
 
 import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.dto.ApplicationSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 申請リポジトリ
  * 申請データのデータベース操作を提供
  */
 @Repository
-public interface ApplicationRepository extends JpaRepository<Application, Long> {
+public interface ApplicationRepository extends JpaRepository<Application, Long>, ApplicationQueryRepository {
+
+    /**
+     * ストリーミング取得時のJDBCフェッチサイズ
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * キーセット条件: (createdAt, id) がカーソル位置より前の行
+     * 先頭の createdAt 条件はインデックス範囲スキャンを効かせるための冗長条件
+     */
+    String KEYSET_CONDITION = "a.createdAt <= :createdAt"
+            + " AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id))";
+
+    String KEYSET_ORDER = " ORDER BY a.createdAt DESC, a.id DESC";
+
+    /**
+     * 一覧用のサマリーだけを SELECT する（説明・却下理由は読み込まない）
+     */
+    String SUMMARY_SELECT = "SELECT new com.medicalcare.applicationservice.dto.ApplicationSummary(a.id,"
+            + " a.applicationNumber, a.institutionId, a.userId, a.applicationType, a.title, a.status,"
+            + " a.submittedAt, a.approvedAt, a.rejectedAt, a.createdAt, a.updatedAt, a.version) FROM Application a";
 
     /**
      * 申請番号で申請を検索
@@ -42,37 +70,97 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     List<Application> findByApplicationType(String applicationType);
 
     /**
-     * ユーザーIDとステータスで申請一覧を取得
+     * 医療機関に申請したことのあるユーザーIDを昇順に取得（afterUserId より後ろから、通知の一斉配信用）
      */
-    List<Application> findByUserIdAndStatus(Long userId, Application.ApplicationStatus status);
+    @Query("SELECT DISTINCT a.userId FROM Application a WHERE a.institutionId = :institutionId"
+            + " AND a.userId > :afterUserId ORDER BY a.userId")
+    List<Long> findUserIdsByInstitutionId(@Param("institutionId") Long institutionId,
+            @Param("afterUserId") Long afterUserId, Pageable pageable);
 
     /**
-     * 医療機関IDとステータスで申請一覧を取得
+     * 申請番号の存在確認
      */
-    List<Application> findByInstitutionIdAndStatus(Long institutionId, Application.ApplicationStatus status);
+    boolean existsByApplicationNumber(String applicationNumber);
 
     /**
-     * 申請番号の存在確認
+     * 全申請をキーセットページで取得
      */
-    boolean existsByApplicationNumber(String applicationNumber);
+    @Query(SUMMARY_SELECT + " WHERE " + KEYSET_CONDITION + KEYSET_ORDER)
+    List<ApplicationSummary> findPage(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * ユーザーIDで申請をキーセットページで取得
+     */
+    @Query(SUMMARY_SELECT + " WHERE a.userId = :userId AND " + KEYSET_CONDITION + KEYSET_ORDER)
+    List<ApplicationSummary> findPageByUserId(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * 医療機関IDで申請をキーセットページで取得
+     */
+    @Query(SUMMARY_SELECT + " WHERE a.institutionId = :institutionId AND " + KEYSET_CONDITION
+            + KEYSET_ORDER)
+    List<ApplicationSummary> findPageByInstitutionId(@Param("institutionId") Long institutionId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * ステータスで申請をキーセットページで取得
+     */
+    @Query(SUMMARY_SELECT + " WHERE a.status = :status AND " + KEYSET_CONDITION + KEYSET_ORDER)
+    List<ApplicationSummary> findPageByStatus(@Param("status") Application.ApplicationStatus status,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * 申請タイプで申請をキーセットページで取得
+     */
+    @Query(SUMMARY_SELECT + " WHERE a.applicationType = :applicationType AND " + KEYSET_CONDITION
+            + KEYSET_ORDER)
+    List<ApplicationSummary> findPageByApplicationType(@Param("applicationType") String applicationType,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * 全申請をストリームで取得（トランザクション内で使用しクローズすること）
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT a FROM Application a" + KEYSET_ORDER)
+    Stream<Application> streamAll();
+
+    /**
+     * ユーザーIDで申請をストリームで取得
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT a FROM Application a WHERE a.userId = :userId" + KEYSET_ORDER)
+    Stream<Application> streamByUserId(@Param("userId") Long userId);
 
     /**
-     * 複数のステータスで申請一覧を取得
+     * 医療機関IDで申請をストリームで取得
      */
-    @Query("SELECT a FROM Application a WHERE a.status IN :statuses")
-    List<Application> findByStatusIn(@Param("statuses") List<Application.ApplicationStatus> statuses);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT a FROM Application a WHERE a.institutionId = :institutionId" + KEYSET_ORDER)
+    Stream<Application> streamByInstitutionId(@Param("institutionId") Long institutionId);
 
     /**
-     * ユーザーIDと複数のステータスで申請一覧を取得
+     * ステータスで申請をストリームで取得
      */
-    @Query("SELECT a FROM Application a WHERE a.userId = :userId AND a.status IN :statuses")
-    List<Application> findByUserIdAndStatusIn(@Param("userId") Long userId,
-            @Param("statuses") List<Application.ApplicationStatus> statuses);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT a FROM Application a WHERE a.status = :status" + KEYSET_ORDER)
+    Stream<Application> streamByStatus(@Param("status") Application.ApplicationStatus status);
 
     /**
-     * 医療機関IDと複数のステータスで申請一覧を取得
+     * 申請タイプで申請をストリームで取得
      */
-    @Query("SELECT a FROM Application a WHERE a.institutionId = :institutionId AND a.status IN :statuses")
-    List<Application> findByInstitutionIdAndStatusIn(@Param("institutionId") Long institutionId,
-            @Param("statuses") List<Application.ApplicationStatus> statuses);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT a FROM Application a WHERE a.applicationType = :applicationType" + KEYSET_ORDER)
+    Stream<Application> streamByApplicationType(@Param("applicationType") String applicationType);
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.medicalcare.applicationservice.repository;
+
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.dto.ApplicationSummary;
+import com.medicalcare.applicationservice.dto.SearchCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 申請検索リポジトリ
+ * タイトル・説明の全文検索を提供する
+ * <ul>
+ * <li>FULL_TEXT: 生成列 search_vector（タイトルを重みA、説明を重みBとした 'simple' 構成の tsvector）の GIN インデックス</li>
+ * <li>TRIGRAM: 空白で区切られない日本語向け。タイトル + 説明の式に対する pg_trgm の GIN インデックスで部分一致検索する</li>
+ * </ul>
+ * 結果は (rank DESC, id DESC) の順で、(rank, id) のキーセットでページングする
+ */
+@Repository
+public class ApplicationSearchRepository {
+
+    // インデックス式と同じ式で検索しないとインデックスが使われない
+    private static final String SEARCH_TEXT = "(a.title || ' ' || coalesce(a.description, ''))";
+
+    // 一覧用のサマリー列（説明・却下理由は検索条件にのみ使い、読み込まない）
+    private static final String COLUMNS = "a.id, a.application_number, a.institution_id, a.user_id,"
+            + " a.application_type, a.title, a.status, a.submitted_at, a.approved_at, a.rejected_at,"
+            + " a.created_at, a.updated_at, a.version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ApplicationSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * search_vector 列と GIN インデックスを作成する
+     * 列の追加は applications の書き換えを伴うため、既存の大きな表ではメンテナンス時間に実行すること
+     */
+    public void createFullTextIndex() {
+        jdbcTemplate.execute("ALTER TABLE applications ADD COLUMN IF NOT EXISTS search_vector tsvector"
+                + " GENERATED ALWAYS AS ("
+                + "setweight(to_tsvector('simple'::regconfig, coalesce(title, '')), 'A') || "
+                + "setweight(to_tsvector('simple'::regconfig, coalesce(description, '')), 'B')) STORED");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_applications_search_vector"
+                + " ON applications USING gin (search_vector)");
+    }
+
+    public void createTrigramExtension() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+    }
+
+    public boolean isTrigramAvailable() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class));
+    }
+
+    public void createTrigramIndex() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_applications_search_trgm"
+                + " ON applications USING gin ((title || ' ' || coalesce(description, '')) gin_trgm_ops)");
+    }
+
+    /**
+     * カーソル位置より後の検索結果を最大 limit 件取得する
+     *
+     * @param trigramRank TRIGRAM の順位付けに pg_trgm の word_similarity を使うか
+     *                    （使わない場合はタイトルに含まれるものを先にする）
+     */
+    public List<Hit> search(Mode mode, String query, SearchFilter filter, SearchCursor after, int limit,
+            boolean trigramRank) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM (SELECT ").append(COLUMNS).append(", (");
+        List<Object> args = new ArrayList<>();
+        if (mode == Mode.FULL_TEXT) {
+            sql.append("ts_rank_cd(a.search_vector, q, 32)");
+            sql.append(")::real AS rank FROM applications a, websearch_to_tsquery('simple', ?) q");
+            sql.append(" WHERE a.search_vector @@ q");
+            args.add(query);
+        } else {
+            String pattern = "%" + escapeLike(query) + "%";
+            if (trigramRank) {
+                sql.append("word_similarity(?, a.title) + word_similarity(?, ").append(SEARCH_TEXT).append(")");
+                args.add(query);
+                args.add(query);
+            } else {
+                sql.append("CASE WHEN a.title ILIKE ? THEN 1 ELSE 0 END");
+                args.add(pattern);
+            }
+            sql.append(")::real AS rank FROM applications a WHERE ").append(SEARCH_TEXT).append(" ILIKE ?");
+            args.add(pattern);
+        }
+        if (filter.status() != null) {
+            sql.append(" AND a.status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.institutionId() != null) {
+            sql.append(" AND a.institution_id = ?");
+            args.add(filter.institutionId());
+        }
+        if (filter.applicationType() != null) {
+            sql.append(" AND a.application_type = ?");
+            args.add(filter.applicationType());
+        }
+        sql.append(") r WHERE r.rank < ? OR (r.rank = ? AND r.id < ?) ORDER BY r.rank DESC, r.id DESC LIMIT ?");
+        args.add(after.getRank());
+        args.add(after.getRank());
+        args.add(after.getId());
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new Hit(mapSummary(rs), rs.getFloat("rank")), args.toArray());
+    }
+
+    private static ApplicationSummary mapSummary(ResultSet rs) throws SQLException {
+        return new ApplicationSummary(rs.getLong("id"), rs.getString("application_number"),
+                rs.getLong("institution_id"), rs.getLong("user_id"), rs.getString("application_type"),
+                rs.getString("title"), Application.ApplicationStatus.valueOf(rs.getString("status")),
+                rs.getObject("submitted_at", LocalDateTime.class), rs.getObject("approved_at", LocalDateTime.class),
+                rs.getObject("rejected_at", LocalDateTime.class), rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class), rs.getLong("version"));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * 検索方式
+     */
+    public enum Mode {
+        FULL_TEXT,
+        TRIGRAM
+    }
+
+    /**
+     * 検索の絞り込み条件（nullの項目は条件にしない）
+     */
+    public record SearchFilter(Application.ApplicationStatus status, Long institutionId, String applicationType) {
+    }
+
+    /**
+     * 検索結果の1件と順位付けのスコア
+     */
+    public record Hit(ApplicationSummary application, float rank) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.medicalcare.applicationservice.repository;
+
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.dto.ApplicationQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 申請の検索条件（Specification）
+ * 条件ごとの固定のファインダーを増やす代わりに、条件を組み合わせて1つのクエリにする
+ */
+public final class ApplicationSpecifications {
+
+    private ApplicationSpecifications() {
+    }
+
+    /**
+     * 検索条件のうち指定された項目をすべて満たす申請
+     *
+     * @throws IllegalArgumentException ステータスが不正な場合
+     */
+    public static Specification<Application> matching(ApplicationQuery query) {
+        List<Specification<Application>> specifications = new ArrayList<>();
+        if (query.getUserId() != null) {
+            specifications.add(hasUserId(query.getUserId()));
+        }
+        if (query.getInstitutionId() != null) {
+            specifications.add(hasInstitutionId(query.getInstitutionId()));
+        }
+        if (query.getStatus() != null && !query.getStatus().isEmpty()) {
+            Set<Application.ApplicationStatus> statuses = EnumSet.noneOf(Application.ApplicationStatus.class);
+            for (String status : query.getStatus()) {
+                statuses.add(Application.ApplicationStatus.valueOf(status.trim().toUpperCase()));
+            }
+            specifications.add(hasStatusIn(statuses));
+        }
+        if (query.getApplicationType() != null) {
+            specifications.add(hasApplicationType(query.getApplicationType()));
+        }
+        if (query.getCreatedFrom() != null || query.getCreatedTo() != null) {
+            specifications.add(between("createdAt", query.getCreatedFrom(), query.getCreatedTo()));
+        }
+        if (query.getSubmittedFrom() != null || query.getSubmittedTo() != null) {
+            specifications.add(between("submittedAt", query.getSubmittedFrom(), query.getSubmittedTo()));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    public static Specification<Application> hasUserId(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<Application> hasInstitutionId(Long institutionId) {
+        return (root, query, cb) -> cb.equal(root.get("institutionId"), institutionId);
+    }
+
+    public static Specification<Application> hasStatusIn(Collection<Application.ApplicationStatus> statuses) {
+        if (statuses.size() == 1) {
+            Application.ApplicationStatus status = statuses.iterator().next();
+            return (root, query, cb) -> cb.equal(root.get("status"), status);
+        }
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<Application> hasApplicationType(String applicationType) {
+        return (root, query, cb) -> cb.equal(root.get("applicationType"), applicationType);
+    }
+
+    /**
+     * 日時が from 以上 to 未満（nullの端は条件にしない）
+     */
+    private static Specification<Application> between(String attribute, LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThan(root.get(attribute), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get(attribute), from);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(root.get(attribute), from), cb.lessThan(root.get(attribute), to));
+        };
+    }
+}
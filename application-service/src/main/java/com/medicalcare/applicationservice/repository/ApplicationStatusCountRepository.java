@@ -0,0 +1,119 @@
+package com.medicalcare.applicationservice.repository;
+
+import com.medicalcare.applicationservice.domain.Application;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 申請ステータス件数リポジトリ
+ * (医療機関ID, ステータス) と (申請タイプ, ステータス) ごとの件数を application_status_counts で管理する。
+ * 同じ件数行への同時更新が行ロックで直列化されないよう、1つのキーを複数のスロット行に分けて加算し、
+ * 読み込み時にスロットを合計する
+ */
+@Repository
+public class ApplicationStatusCountRepository {
+
+    private static final String TABLE = "application_status_counts";
+
+    private static final String UPSERT = "INSERT INTO " + TABLE
+            + " (dimension, dimension_value, status, slot, count) VALUES (?, ?, ?, ?, ?)"
+            + " ON CONFLICT (dimension, dimension_value, status, slot)"
+            + " DO UPDATE SET count = " + TABLE + ".count + EXCLUDED.count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ApplicationStatusCountRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createTableIfNotExists() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "dimension varchar(32) NOT NULL, "
+                + "dimension_value varchar(255) NOT NULL, "
+                + "status varchar(32) NOT NULL, "
+                + "slot smallint NOT NULL, "
+                + "count bigint NOT NULL, "
+                + "PRIMARY KEY (dimension, dimension_value, status, slot))");
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + TABLE + ")", Boolean.class));
+    }
+
+    /**
+     * applications から件数を集計し直す（既存の件数は置き換える）
+     * 件数を更新中のトランザクションの完了を待ち、集計が終わるまで件数の更新を止める
+     * （集計に含まれない申請の増減が、置き換えで消えたり二重に数えられたりしないようにする）。
+     * 件数の読み込みは止めない
+     */
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN SHARE ROW EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM " + TABLE);
+        for (Dimension dimension : Dimension.values()) {
+            jdbcTemplate.update("INSERT INTO " + TABLE + " (dimension, dimension_value, status, slot, count)"
+                    + " SELECT ?, " + dimension.getColumn() + "::text, status, 0, count(*) FROM applications"
+                    + " GROUP BY " + dimension.getColumn() + ", status", dimension.name());
+        }
+    }
+
+    /**
+     * 件数の増減をまとめて反映する
+     * 呼び出し側はデッドロックを避けるため、キーの順序を揃えて渡すこと
+     */
+    public void applyDeltas(List<Delta> deltas) {
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            batchArgs.add(new Object[] { delta.dimension().name(), delta.dimensionValue(), delta.status().name(),
+                    delta.slot(), delta.count() });
+        }
+        jdbcTemplate.batchUpdate(UPSERT, batchArgs);
+    }
+
+    /**
+     * ステータスごとの件数（件数のないステータスは0）
+     */
+    public Map<Application.ApplicationStatus, Long> countByStatus(Dimension dimension, String dimensionValue) {
+        Map<Application.ApplicationStatus, Long> counts = new EnumMap<>(Application.ApplicationStatus.class);
+        for (Application.ApplicationStatus status : Application.ApplicationStatus.values()) {
+            counts.put(status, 0L);
+        }
+        jdbcTemplate.query("SELECT status, sum(count) FROM " + TABLE
+                + " WHERE dimension = ? AND dimension_value = ? GROUP BY status", rs -> {
+                    counts.put(Application.ApplicationStatus.valueOf(rs.getString(1)), rs.getLong(2));
+                }, dimension.name(), dimensionValue);
+        return counts;
+    }
+
+    /**
+     * 件数の集計軸
+     */
+    public enum Dimension {
+        INSTITUTION("institution_id"),
+        TYPE("application_type");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    /**
+     * 1スロット分の件数の増減
+     */
+    public record Delta(Dimension dimension, String dimensionValue, Application.ApplicationStatus status, int slot,
+            long count) {
+    }
+}
@@ -0,0 +1,212 @@
+package com.medicalcare.applicationservice.repository;
+
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.domain.ApplicationTransition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 申請ステータス更新リポジトリ
+ * ステータス遷移を条件付きUPDATE 1回で行い、更新後の行と遷移前のステータスを返す
+ * 一括遷移はID集合に対する1回のUPDATEで行う
+ */
+@Repository
+public class ApplicationStatusRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ApplicationStatusRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 現在のステータスが遷移元として許可されている場合のみステータスを更新
+     * 遷移前のステータスは FOR UPDATE 付きの副問い合わせで行ロックを取ったうえで読むため、
+     * 同時更新があった場合も最新の値で判定される
+     *
+     * @param expectedVersion 指定時はバージョンも一致した場合のみ更新（null は不問）
+     * @return 更新後の申請と遷移前のステータス（条件に合わず更新されなかった場合は空）
+     */
+    public Optional<StatusChange> transition(Long id, ApplicationTransition transition, Long expectedVersion,
+            String rejectionReason, LocalDateTime now) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = updateClause(transition, rejectionReason, now, args)
+                .append(" FROM (SELECT id, status FROM applications WHERE id = ? FOR UPDATE) prev");
+        args.add(id);
+        sql.append(" WHERE a.id = prev.id AND prev.status IN (").append(statusPlaceholders(transition, args))
+                .append(")");
+        if (expectedVersion != null) {
+            sql.append(" AND a.version = ?");
+            args.add(expectedVersion);
+        }
+        sql.append(" RETURNING a.*, prev.status AS previous_status");
+
+        List<StatusChange> changes = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new StatusChange(
+                mapApplication(rs, rowNum),
+                Application.ApplicationStatus.valueOf(rs.getString("previous_status"))), args.toArray());
+        return changes.stream().findFirst();
+    }
+
+    /**
+     * 複数の申請をまとめて遷移させる（集合演算のUPDATE 1回）
+     * 行ロックはID順に取得するため、同時に実行される一括遷移同士でデッドロックしない
+     *
+     * @return 遷移した申請のID → 遷移前のステータス等
+     */
+    public Map<Long, Transitioned> transitionAll(Collection<Long> ids,
+            ApplicationTransition transition, String rejectionReason, LocalDateTime now) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = updateClause(transition, rejectionReason, now, args)
+                .append(" FROM (SELECT id, status FROM applications WHERE id = ANY (?::bigint[])");
+        args.add(arrayLiteral(ids));
+        sql.append(" AND status IN (").append(statusPlaceholders(transition, args))
+                .append(") ORDER BY id FOR UPDATE) prev WHERE a.id = prev.id")
+                .append(" RETURNING a.id, a.application_number, a.institution_id, a.user_id, a.application_type,")
+                .append(" a.title, prev.status AS previous_status");
+
+        Map<Long, Transitioned> transitioned = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            transitioned.put(rs.getLong("id"), new Transitioned(rs.getLong("institution_id"),
+                    rs.getString("application_type"),
+                    Application.ApplicationStatus.valueOf(rs.getString("previous_status")),
+                    rs.getString("application_number"), rs.getLong("user_id"), rs.getString("title")));
+        }, args.toArray());
+        return transitioned;
+    }
+
+    /**
+     * 指定IDの現在のステータスを1回の問い合わせで取得（存在しないIDは含まれない）
+     */
+    public Map<Long, Application.ApplicationStatus> findStatuses(Collection<Long> ids) {
+        Map<Long, Application.ApplicationStatus> statuses = new HashMap<>();
+        jdbcTemplate.query("SELECT id, status FROM applications WHERE id = ANY (?::bigint[])", rs -> {
+            statuses.put(rs.getLong("id"), Application.ApplicationStatus.valueOf(rs.getString("status")));
+        }, arrayLiteral(ids));
+        return statuses;
+    }
+
+    /**
+     * 条件に一致し、遷移元として許可されたステータスの申請IDをID順に取得
+     *
+     * @param institutionId 医療機関ID（null は不問）
+     * @param status        ステータス（null は遷移元として許可された全ステータス）
+     * @param afterId       このIDより大きいIDのみ（先頭から取得する場合は0）
+     */
+    public List<Long> findTransitionableIds(ApplicationTransition transition, Long institutionId,
+            Application.ApplicationStatus status, long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT id FROM applications WHERE id > ?");
+        args.add(afterId);
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        } else {
+            sql.append(" AND status IN (").append(statusPlaceholders(transition, args)).append(")");
+        }
+        if (institutionId != null) {
+            sql.append(" AND institution_id = ?");
+            args.add(institutionId);
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    /**
+     * 現在のステータスとバージョンを取得（更新できなかった理由の判定用）
+     */
+    public Optional<Snapshot> findSnapshot(Long id) {
+        return jdbcTemplate.query("SELECT status, version FROM applications WHERE id = ?",
+                (rs, rowNum) -> new Snapshot(Application.ApplicationStatus.valueOf(rs.getString("status")),
+                        rs.getLong("version")),
+                id).stream().findFirst();
+    }
+
+    /**
+     * 遷移先ステータス・更新日時・遷移日時（・却下理由）を設定する UPDATE 句
+     */
+    private static StringBuilder updateClause(ApplicationTransition transition, String rejectionReason,
+            LocalDateTime now, List<Object> args) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE applications a SET status = ?, version = a.version + 1, updated_at = ?");
+        args.add(transition.getTarget().name());
+        args.add(Timestamp.valueOf(now));
+        if (transition.getTimestampColumn() != null) {
+            sql.append(", ").append(transition.getTimestampColumn()).append(" = ?");
+            args.add(Timestamp.valueOf(now));
+        }
+        if (transition == ApplicationTransition.REJECT) {
+            sql.append(", rejection_reason = ?");
+            args.add(rejectionReason);
+        }
+        return sql;
+    }
+
+    /**
+     * 遷移元ステータスのプレースホルダーを返し、引数を追加
+     */
+    private static String statusPlaceholders(ApplicationTransition transition, List<Object> args) {
+        transition.getAllowedFrom().forEach(status -> args.add(status.name()));
+        return transition.getAllowedFrom().stream().map(status -> "?").collect(Collectors.joining(", "));
+    }
+
+    /**
+     * PostgreSQL の配列リテラル（例: {1,2,3}）
+     */
+    private static String arrayLiteral(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static Application mapApplication(ResultSet rs, int rowNum) throws SQLException {
+        Application application = new Application();
+        application.setId(rs.getLong("id"));
+        application.setApplicationNumber(rs.getString("application_number"));
+        application.setInstitutionId(rs.getLong("institution_id"));
+        application.setUserId(rs.getLong("user_id"));
+        application.setApplicationType(rs.getString("application_type"));
+        application.setTitle(rs.getString("title"));
+        application.setDescription(rs.getString("description"));
+        application.setStatus(Application.ApplicationStatus.valueOf(rs.getString("status")));
+        application.setSubmittedAt(rs.getObject("submitted_at", LocalDateTime.class));
+        application.setApprovedAt(rs.getObject("approved_at", LocalDateTime.class));
+        application.setRejectedAt(rs.getObject("rejected_at", LocalDateTime.class));
+        application.setRejectionReason(rs.getString("rejection_reason"));
+        application.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        application.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        application.setVersion(rs.getLong("version"));
+        return application;
+    }
+
+    /**
+     * ステータス遷移の結果
+     */
+    public record StatusChange(Application application, Application.ApplicationStatus previousStatus) {
+    }
+
+    /**
+     * 一括遷移で遷移した申請の集計キーと遷移前のステータス（およびイベント配信用の項目）
+     */
+    public record Transitioned(Long institutionId, String applicationType,
+            Application.ApplicationStatus previousStatus, String applicationNumber, Long userId, String title) {
+    }
+
+    /**
+     * 現在のステータスとバージョン
+     */
+    public record Snapshot(Application.ApplicationStatus status, long version) {
+    }
+}
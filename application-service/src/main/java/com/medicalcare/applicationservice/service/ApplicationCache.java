@@ -0,0 +1,365 @@
+package com.medicalcare.applicationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicalcare.applicationservice.domain.Application;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 申請の2層キャッシュ
+ * L1: インスタンス内のサイズ上限・TTL付きキャッシュ、L2: Redis（インスタンス間で共有）。
+ * 更新時はコミット後に両方から削除し、Redis Pub/Sub で他インスタンスのL1も削除する。
+ * Redis に接続できない間は L2 を一定時間迂回し、DB から読み込む
+ * <p>
+ * 削除より前に読み込みを始めたリーダーが古い申請を書き戻さないよう、
+ * L1 は削除の通番、L2 は一定時間残る削除済みマーカーで書き込みを抑止する。
+ * L1 は JSON を保持し、取得のたびに新しいインスタンスを返す
+ */
+@Component
+public class ApplicationCache implements MessageListener {
+
+    /**
+     * L1 削除を他インスタンスへ通知するチャネル
+     */
+    public static final String INVALIDATION_CHANNEL = "application-cache:invalidate";
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationCache.class);
+
+    private static final String KEY_PREFIX = "application:";
+    private static final String NUMBER_KEY_PREFIX = "application:number:";
+    private static final String EVICTED_KEY_PREFIX = "application:evicted:";
+
+    // 削除の通番を記録するストライプ数（2のべき乗）
+    private static final int EVICTION_STRIPES = 1024;
+
+    // 削除済みマーカーがない場合のみ L2 に書き込む
+    private static final RedisScript<Long> PUT_UNLESS_EVICTED = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[2]) == 1 then return 0 end "
+                    + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.cache.l1.maximum-size:10000}")
+    private long l1MaximumSize;
+
+    @Value("${application.cache.l1.ttl:30s}")
+    private Duration l1Ttl;
+
+    @Value("${application.cache.l2.enabled:true}")
+    private boolean l2Enabled;
+
+    @Value("${application.cache.l2.ttl:5m}")
+    private Duration l2Ttl;
+
+    @Value("${application.cache.l2.retry-interval:30s}")
+    private Duration l2RetryInterval;
+
+    @Value("${application.cache.l2.evicted-ttl:30s}")
+    private Duration l2EvictedTtl;
+
+    // 申請 ID → JSON（呼び出し元ごとに別インスタンスへ復元する）
+    private Cache<Long, String> applications;
+
+    // 申請番号は変更されないため、申請番号 → ID の対応は削除時以外は無効化不要
+    private Cache<String, Long> applicationIds;
+
+    // Redis 障害時、この時刻（System.nanoTime）まで L2 を迂回する
+    private volatile long l2SuspendedUntil;
+
+    // 削除の通番と、ID のストライプごとの最終削除通番。
+    // 読み込み開始時の通番より後に削除されたストライプへは L1 に書き込まない
+    private final AtomicLong evictionSequence = new AtomicLong();
+    private final AtomicLongArray evictedAt = new AtomicLongArray(EVICTION_STRIPES);
+
+    @Autowired
+    public ApplicationCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        applications = Caffeine.newBuilder()
+                .maximumSize(l1MaximumSize)
+                .expireAfterWrite(l1Ttl)
+                .recordStats()
+                .build();
+        applicationIds = Caffeine.newBuilder()
+                .maximumSize(l1MaximumSize)
+                .expireAfterWrite(l2Ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, applications, "applications");
+        CaffeineCacheMetrics.monitor(meterRegistry, applicationIds, "application-numbers");
+    }
+
+    /**
+     * IDで申請を取得（L1 → L2 → loader の順）
+     * 存在しない申請はキャッシュしない
+     */
+    public Optional<Application> get(Long id, Supplier<Optional<Application>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Application application = readLocal(id);
+        if (application != null) {
+            return Optional.of(application);
+        }
+        long started = evictionSequence.get();
+        String json = readRemote(id);
+        if (json != null) {
+            application = deserialize(id, json);
+            if (application != null) {
+                putLocal(id, json, started);
+                return Optional.of(application);
+            }
+        }
+        Optional<Application> loaded = loader.get();
+        loaded.ifPresent(loadedApplication -> put(loadedApplication, started));
+        return loaded;
+    }
+
+    /**
+     * 申請番号で申請を取得
+     * 申請番号 → ID の対応をキャッシュし、申請本体は get(id) と同じキャッシュを使う
+     */
+    public Optional<Application> getByApplicationNumber(String applicationNumber,
+            Supplier<Optional<Application>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long started = evictionSequence.get();
+        Long id = applicationIds.getIfPresent(applicationNumber);
+        if (id == null) {
+            String remoteId = remote(() -> redisTemplate.opsForValue().get(NUMBER_KEY_PREFIX + applicationNumber));
+            if (remoteId != null) {
+                id = Long.valueOf(remoteId);
+                applicationIds.put(applicationNumber, id);
+            }
+        }
+        if (id != null) {
+            return get(id, loader);
+        }
+        Optional<Application> loaded = loader.get();
+        loaded.ifPresent(application -> put(application, started));
+        return loaded;
+    }
+
+    /**
+     * 申請をキャッシュから削除（トランザクション中はコミット後に削除）
+     */
+    public void evict(Long id) {
+        evict(List.of(id));
+    }
+
+    /**
+     * 複数の申請をキャッシュから削除（トランザクション中はコミット後に削除）
+     */
+    public void evict(Collection<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            invalidateLocal(ids);
+            meterRegistry.counter("application.cache.invalidations").increment(ids.size());
+            remote(() -> {
+                // マーカーを先に書き、削除後に古い値が書き戻されないようにする
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        ValueOperations<String, String> values =
+                                (ValueOperations<String, String>) operations.opsForValue();
+                        ids.forEach(id -> values.set(EVICTED_KEY_PREFIX + id, "1", l2EvictedTtl));
+                        return null;
+                    }
+                });
+                redisTemplate.delete(ids.stream().map(id -> KEY_PREFIX + id).toList());
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                        ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+                return null;
+            });
+        });
+    }
+
+    /**
+     * 削除された申請の申請番号 → ID の対応をキャッシュから削除
+     */
+    public void evictApplicationNumber(String applicationNumber) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            applicationIds.invalidate(applicationNumber);
+            remote(() -> redisTemplate.delete(NUMBER_KEY_PREFIX + applicationNumber));
+        });
+    }
+
+    /**
+     * 他インスタンスからの削除通知（カンマ区切りのID）を受けて L1 から削除
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            invalidateLocal(Arrays.stream(body.split(",")).map(Long::valueOf).toList());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed application cache invalidation: {}", body);
+        }
+    }
+
+    /**
+     * 読み込んだ申請をキャッシュに書き込む
+     * 読み込み開始（started）以降に削除された申請は書き込まない
+     */
+    private void put(Application application, long started) {
+        Long id = application.getId();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(application);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize application {} for cache", id, e);
+            return;
+        }
+        applicationIds.put(application.getApplicationNumber(), id);
+        if (!putLocal(id, json, started)) {
+            return;
+        }
+        remote(() -> {
+            Long written = redisTemplate.execute(PUT_UNLESS_EVICTED,
+                    List.of(KEY_PREFIX + id, EVICTED_KEY_PREFIX + id),
+                    json, String.valueOf(l2Ttl.toMillis()));
+            if (written != null && written == 0) {
+                meterRegistry.counter("application.cache.stale-puts", "level", "l2").increment();
+            }
+            redisTemplate.opsForValue().set(NUMBER_KEY_PREFIX + application.getApplicationNumber(),
+                    String.valueOf(id), l2Ttl);
+            return null;
+        });
+    }
+
+    private boolean putLocal(Long id, String json, long started) {
+        if (evictedAt.get(stripe(id)) > started) {
+            meterRegistry.counter("application.cache.stale-puts", "level", "l1").increment();
+            return false;
+        }
+        applications.put(id, json);
+        // 書き込みと削除が競合した場合は、書き込んだ値を破棄する
+        if (evictedAt.get(stripe(id)) > started) {
+            applications.invalidate(id);
+            return false;
+        }
+        return true;
+    }
+
+    private void invalidateLocal(Collection<Long> ids) {
+        for (Long id : ids) {
+            evictedAt.accumulateAndGet(stripe(id), evictionSequence.incrementAndGet(), Math::max);
+        }
+        applications.invalidateAll(ids);
+    }
+
+    private Application readLocal(Long id) {
+        String json = applications.getIfPresent(id);
+        return json == null ? null : deserialize(id, json);
+    }
+
+    private String readRemote(Long id) {
+        String json = remote(() -> redisTemplate.opsForValue().get(KEY_PREFIX + id));
+        meterRegistry.counter("application.cache.l2", "result", json == null ? "miss" : "hit").increment();
+        return json;
+    }
+
+    private Application deserialize(Long id, String json) {
+        try {
+            return objectMapper.readValue(json, Application.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable cached application {}", id, e);
+            applications.invalidate(id);
+            return null;
+        }
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (EVICTION_STRIPES - 1);
+    }
+
+    /**
+     * Redis 操作を実行する。失敗した場合は retry-interval の間 L2 を迂回し、null を返す
+     */
+    private <T> T remote(RemoteOperation<T> operation) {
+        long suspendedUntil = l2SuspendedUntil;
+        if (!l2Enabled || (suspendedUntil != 0 && System.nanoTime() - suspendedUntil < 0)) {
+            return null;
+        }
+        try {
+            T result = operation.execute();
+            l2SuspendedUntil = 0;
+            return result;
+        } catch (Exception e) {
+            l2SuspendedUntil = System.nanoTime() + l2RetryInterval.toNanos();
+            meterRegistry.counter("application.cache.l2", "result", "error").increment();
+            log.warn("Redis unavailable, bypassing application cache L2 for {}", l2RetryInterval, e);
+            return null;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Redis 操作
+     */
+    @FunctionalInterface
+    private interface RemoteOperation<T> {
+        T execute() throws Exception;
+    }
+}
@@ -0,0 +1,125 @@
+package com.medicalcare.applicationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.domain.ApplicationTransition;
+import com.medicalcare.applicationservice.dto.ApplicationEvent;
+import com.medicalcare.applicationservice.repository.ApplicationOutboxRepository;
+import com.medicalcare.applicationservice.repository.ApplicationStatusRepository.StatusChange;
+import com.medicalcare.applicationservice.repository.ApplicationStatusRepository.Transitioned;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 申請イベントのアウトボックスへの書き込み
+ * ステータス遷移と同じトランザクションで配信先ごとにイベントを書き込み、
+ * コミット後にリレーを起こして配信までの遅延を抑える
+ */
+@Component
+public class ApplicationEventOutbox {
+
+    private final ApplicationOutboxRepository applicationOutboxRepository;
+    private final ApplicationOutboxRelay applicationOutboxRelay;
+    private final List<ApplicationEventSink> sinks;
+    private final ObjectMapper objectMapper;
+
+    @Value("${application.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    public ApplicationEventOutbox(ApplicationOutboxRepository applicationOutboxRepository,
+            ApplicationOutboxRelay applicationOutboxRelay, List<ApplicationEventSink> sinks,
+            ObjectMapper objectMapper) {
+        this.applicationOutboxRepository = applicationOutboxRepository;
+        this.applicationOutboxRelay = applicationOutboxRelay;
+        this.sinks = sinks;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 1件のステータス遷移のイベントを書き込む
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transitioned(StatusChange change) {
+        Application application = change.application();
+        ApplicationEvent event = newEvent(application.getStatus(), application.getUpdatedAt());
+        event.setApplicationId(application.getId());
+        event.setApplicationNumber(application.getApplicationNumber());
+        event.setInstitutionId(application.getInstitutionId());
+        event.setUserId(application.getUserId());
+        event.setApplicationType(application.getApplicationType());
+        event.setTitle(application.getTitle());
+        event.setPreviousStatus(change.previousStatus());
+        event.setRejectionReason(application.getRejectionReason());
+        append(List.of(event));
+    }
+
+    /**
+     * 一括遷移のイベントを書き込む
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transitioned(Map<Long, Transitioned> transitioned, ApplicationTransition transition,
+            String rejectionReason, LocalDateTime now) {
+        List<ApplicationEvent> events = new ArrayList<>(transitioned.size());
+        transitioned.forEach((id, row) -> {
+            ApplicationEvent event = newEvent(transition.getTarget(), now);
+            event.setApplicationId(id);
+            event.setApplicationNumber(row.applicationNumber());
+            event.setInstitutionId(row.institutionId());
+            event.setUserId(row.userId());
+            event.setApplicationType(row.applicationType());
+            event.setTitle(row.title());
+            event.setPreviousStatus(row.previousStatus());
+            event.setRejectionReason(transition == ApplicationTransition.REJECT ? rejectionReason : null);
+            events.add(event);
+        });
+        append(events);
+    }
+
+    private static ApplicationEvent newEvent(Application.ApplicationStatus status, LocalDateTime occurredAt) {
+        ApplicationEvent event = new ApplicationEvent();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setEventType("APPLICATION_" + status.name());
+        event.setStatus(status);
+        event.setOccurredAt(occurredAt);
+        return event;
+    }
+
+    private void append(List<ApplicationEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        List<ApplicationOutboxRepository.Message> messages = new ArrayList<>(events.size() * sinks.size());
+        for (ApplicationEvent event : events) {
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(event);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize application event", e);
+            }
+            for (ApplicationEventSink sink : sinks) {
+                messages.add(new ApplicationOutboxRepository.Message(event.getEventId(), sink.getDestination(),
+                        event.getEventType(), event.getApplicationId(), payload));
+            }
+        }
+        applicationOutboxRepository.append(messages);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applicationOutboxRelay.wakeUp();
+            }
+        });
+    }
+}
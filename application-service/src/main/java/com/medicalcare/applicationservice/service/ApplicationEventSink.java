@@ -0,0 +1,23 @@
+package com.medicalcare.applicationservice.service;
+
+import com.medicalcare.applicationservice.dto.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * 申請イベントの配信先
+ * アウトボックスには配信先ごとに行を書き込み、リレーが配信先ごとにまとめて deliver を呼ぶ
+ */
+public interface ApplicationEventSink {
+
+    /**
+     * アウトボックスの destination 列の値
+     */
+    String getDestination();
+
+    /**
+     * イベントをまとめて配信する。例外を投げた場合は全件を後で再配信する
+     * ただし RejectedEventsException の場合は、拒否されたイベントを配信停止にし、残りを配信済みにする
+     */
+    void deliver(List<ApplicationEvent> events);
+}
@@ -0,0 +1,388 @@
+package com.medicalcare.applicationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.dto.ApplicationImportRow;
+import com.medicalcare.applicationservice.dto.ImportJob;
+import com.medicalcare.applicationservice.repository.ApplicationBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 申請一括インポートサービス
+ * アップロードされたCSV/NDJSONを一時ファイルに書き出してすぐに応答し、ワーカースレッドで
+ * 1行ずつ読み込み・検証して chunk-size 行ごとに1トランザクションの JDBC バッチで登録する。
+ * 進捗と行単位のエラーはジョブIDで参照できる
+ */
+@Service
+public class ApplicationImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationImportService.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final ApplicationBatchRepository applicationBatchRepository;
+    private final ApplicationStatusCounter applicationStatusCounter;
+    private final ApplicationNumberGenerator applicationNumberGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader rowReader;
+
+    @Value("${application.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${application.import.workers:1}")
+    private int workers;
+
+    @Value("${application.import.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${application.import.retained-jobs:100}")
+    private int retainedJobs;
+
+    // 登録順に保持し、上限を超えたら終了済みの古いジョブから削除する
+    private final Map<String, ImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private ThreadPoolExecutor executor;
+
+    @Autowired
+    public ApplicationImportService(ApplicationBatchRepository applicationBatchRepository,
+            ApplicationStatusCounter applicationStatusCounter, ApplicationNumberGenerator applicationNumberGenerator,
+            TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.applicationBatchRepository = applicationBatchRepository;
+        this.applicationStatusCounter = applicationStatusCounter;
+        this.applicationNumberGenerator = applicationNumberGenerator;
+        this.transactionTemplate = transactionTemplate;
+        this.rowReader = objectMapper.readerFor(ApplicationImportRow.class);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "application-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Application import still running at shutdown");
+        }
+    }
+
+    /**
+     * アップロードを一時ファイルに書き出し、インポートジョブを登録する
+     *
+     * @throws RejectedExecutionException 待機中のジョブが queue-capacity に達している場合
+     */
+    public ImportJob submit(InputStream body, Format format) throws IOException {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Too many pending import jobs");
+        }
+        Path spool = Files.createTempFile("application-import-", "." + format.name().toLowerCase());
+        try {
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), format.name());
+            register(job);
+            try {
+                executor.execute(() -> run(job, spool, format));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            return job;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
+
+    public Optional<ImportJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void register(ImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            Iterator<ImportJob> oldest = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && oldest.hasNext()) {
+                if (oldest.next().isFinished()) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    private void run(ImportJob job, Path spool, Format format) {
+        job.start();
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            RowSource rows = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+            List<Application> chunk = new ArrayList<>(chunkSize);
+            List<Long> chunkRows = new ArrayList<>(chunkSize);
+            LocalDateTime now = LocalDateTime.now();
+            long rowNumber = 0;
+            while (true) {
+                ApplicationImportRow row;
+                try {
+                    row = rows.next();
+                } catch (RowException e) {
+                    job.reject(++rowNumber, e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                rowNumber++;
+                String error = validate(row);
+                if (error != null) {
+                    job.reject(rowNumber, error);
+                    continue;
+                }
+                chunk.add(toApplication(row, now));
+                chunkRows.add(rowNumber);
+                if (chunk.size() >= chunkSize) {
+                    flush(job, chunk, chunkRows);
+                }
+            }
+            flush(job, chunk, chunkRows);
+            job.complete();
+            log.info("Application import {} finished: {} imported, {} rejected, {} rows/s", job.getId(),
+                    job.getImported(), job.getRejected(), job.getRowsPerSecond());
+        } catch (IOException | RuntimeException e) {
+            log.error("Application import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool file {}", spool, e);
+            }
+        }
+    }
+
+    /**
+     * 1チャンクを1トランザクションで登録する
+     * 一意制約違反などで失敗した場合は、1行ずつ登録し直して失敗した行だけをエラーにする
+     */
+    private void flush(ImportJob job, List<Application> chunk, List<Long> chunkRows) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            insert(chunk);
+            job.addImported(chunk.size());
+        } catch (DataIntegrityViolationException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    insert(List.of(chunk.get(i)));
+                    job.addImported(1);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    job.reject(chunkRows.get(i), rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+
+    private void insert(List<Application> applications) {
+        transactionTemplate.executeWithoutResult(status -> {
+            applicationBatchRepository.insertAll(applications);
+            applicationStatusCounter.created(applications);
+        });
+    }
+
+    /**
+     * 検証エラーのメッセージ（問題なければnull）
+     */
+    private static String validate(ApplicationImportRow row) {
+        if (row.getInstitutionId() == null) {
+            return "institutionId is required";
+        }
+        if (row.getUserId() == null) {
+            return "userId is required";
+        }
+        if (row.getApplicationType() == null || row.getApplicationType().isBlank()) {
+            return "applicationType is required";
+        }
+        if (row.getTitle() == null || row.getTitle().isBlank()) {
+            return "title is required";
+        }
+        if (row.getApplicationType().length() > MAX_TEXT_LENGTH || row.getTitle().length() > MAX_TEXT_LENGTH) {
+            return "applicationType and title must be at most " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.getStatus() != null) {
+            try {
+                Application.ApplicationStatus.valueOf(row.getStatus().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return "Unknown status: " + row.getStatus();
+            }
+        }
+        return null;
+    }
+
+    private Application toApplication(ApplicationImportRow row, LocalDateTime now) {
+        Application application = new Application(applicationNumberGenerator.next(), row.getInstitutionId(),
+                row.getUserId(), row.getApplicationType(), row.getTitle(), row.getDescription());
+        if (row.getStatus() != null) {
+            application.setStatus(Application.ApplicationStatus.valueOf(row.getStatus().toUpperCase()));
+        }
+        application.setSubmittedAt(row.getSubmittedAt());
+        application.setApprovedAt(row.getApprovedAt());
+        application.setRejectedAt(row.getRejectedAt());
+        application.setRejectionReason(row.getRejectionReason());
+        application.setCreatedAt(row.getCreatedAt() != null ? row.getCreatedAt() : now);
+        application.setUpdatedAt(now);
+        return application;
+    }
+
+    /**
+     * NDJSON: 1行1オブジェクト。空行は読み飛ばし、読み込めない行・オブジェクトでない行はその行のエラーとする
+     */
+    private RowSource ndjsonRows(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            ApplicationImportRow row;
+            try {
+                row = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new RowException("Invalid JSON: " + e.getOriginalMessage());
+            }
+            // JSON の null は入力の終わり（null）と区別してその行のエラーにする
+            if (row == null) {
+                throw new RowException("Row must be a JSON object");
+            }
+            return row;
+        };
+    }
+
+    /**
+     * CSV: 1行目はヘッダー（列名はキャメルケース・スネークケースのどちらでもよく、未知の列は無視する）
+     */
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        List<String> columns = header.stream()
+                .map(name -> name.replace("_", "").replace("-", "").trim().toLowerCase())
+                .toList();
+        for (String required : List.of("institutionid", "userid", "applicationtype", "title")) {
+            if (!columns.contains(required)) {
+                throw new IOException("Missing CSV column: " + required);
+            }
+        }
+        return () -> {
+            List<String> record;
+            do {
+                record = csv.next();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isEmpty());
+            if (record.size() != columns.size()) {
+                throw new RowException("Expected " + columns.size() + " fields but found " + record.size());
+            }
+            ApplicationImportRow row = new ApplicationImportRow();
+            for (int i = 0; i < columns.size(); i++) {
+                String value = record.get(i).isEmpty() ? null : record.get(i);
+                try {
+                    setField(row, columns.get(i), value);
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    throw new RowException("Invalid value for " + header.get(i) + ": " + value);
+                }
+            }
+            return row;
+        };
+    }
+
+    private static void setField(ApplicationImportRow row, String column, String value) {
+        switch (column) {
+            case "institutionid" -> row.setInstitutionId(value == null ? null : Long.valueOf(value.trim()));
+            case "userid" -> row.setUserId(value == null ? null : Long.valueOf(value.trim()));
+            case "applicationtype" -> row.setApplicationType(value);
+            case "title" -> row.setTitle(value);
+            case "description" -> row.setDescription(value);
+            case "status" -> row.setStatus(value);
+            case "createdat" -> row.setCreatedAt(dateTime(value));
+            case "submittedat" -> row.setSubmittedAt(dateTime(value));
+            case "approvedat" -> row.setApprovedAt(dateTime(value));
+            case "rejectedat" -> row.setRejectedAt(dateTime(value));
+            case "rejectionreason" -> row.setRejectionReason(value);
+            default -> {
+                // 未知の列は無視
+            }
+        }
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        return value == null ? null : LocalDateTime.parse(value.trim());
+    }
+
+    /**
+     * インポートファイルの形式
+     */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * 行の読み込み元（入力の終わりではnull）
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        ApplicationImportRow next() throws IOException;
+    }
+
+    /**
+     * 1行分の読み込みエラー（次の行から読み込みを続けられる）
+     */
+    private static class RowException extends RuntimeException {
+
+        RowException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.medicalcare.applicationservice.service;
+
+/**
+ * 申請番号ジェネレーター
+ * application.number.generator で実装を切り替える（sequence: 既定 / random: 従来方式）
+ */
+public interface ApplicationNumberGenerator {
+
+    String PREFIX = "APP-";
+
+    /**
+     * 新しい申請番号を返す
+     */
+    String next();
+}
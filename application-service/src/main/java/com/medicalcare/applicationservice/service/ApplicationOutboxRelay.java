@@ -0,0 +1,309 @@
+package com.medicalcare.applicationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalcare.applicationservice.dto.ApplicationEvent;
+import com.medicalcare.applicationservice.exception.RejectedEventsException;
+import com.medicalcare.applicationservice.repository.ApplicationOutboxRepository;
+import com.medicalcare.applicationservice.repository.ApplicationOutboxRepository.Backlog;
+import com.medicalcare.applicationservice.repository.ApplicationOutboxRepository.Pending;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 申請イベントのアウトボックスリレー
+ * 専用スレッドで配信先ごとに未配信イベントを batch-size 件ずつ取得して配信し、配信済みにする（少なくとも1回配信）。
+ * 配信に失敗した場合はジッター付き指数バックオフで再試行し、max-attempts 回失敗したイベントは配信を停止する。
+ * 新しいイベントがコミットされると wakeUp で即座に起き、それ以外は poll-interval ごとに確認する
+ * <p>
+ * メトリクス: application.outbox.pending / application.outbox.lag（未配信件数と最古の未配信イベントの経過秒数）、
+ * application.outbox.delivery.lag（作成から配信までの時間）、application.outbox.delivered / failures / dead
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ApplicationOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationOutboxRelay.class);
+
+    // 全 application-service インスタンスで共有する pg_advisory_xact_lock のキー
+    private static final long LOCK_KEY = 0x4150504f42L;
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final ApplicationOutboxRepository applicationOutboxRepository;
+    private final List<ApplicationEventSink> sinks;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${application.outbox.poll-interval:1s}")
+    private Duration pollInterval;
+
+    @Value("${application.outbox.lease:30s}")
+    private Duration lease;
+
+    @Value("${application.outbox.max-attempts:20}")
+    private int maxAttempts;
+
+    @Value("${application.outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${application.outbox.max-backoff:5m}")
+    private Duration maxBackoff;
+
+    @Value("${application.outbox.retention:7d}")
+    private Duration retention;
+
+    @Value("${application.outbox.metrics-interval:10s}")
+    private Duration metricsInterval;
+
+    private final BlockingQueue<Boolean> wakeUps = new ArrayBlockingQueue<>(1);
+
+    private volatile Map<String, Backlog> backlog = Map.of();
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    @Autowired
+    public ApplicationOutboxRelay(ApplicationOutboxRepository applicationOutboxRepository,
+            List<ApplicationEventSink> sinks, ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.applicationOutboxRepository = applicationOutboxRepository;
+        this.sinks = sinks;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            applicationOutboxRepository.createTableIfNotExists();
+        });
+        for (ApplicationEventSink sink : sinks) {
+            String destination = sink.getDestination();
+            Gauge.builder("application.outbox.pending", this, relay -> relay.pending(destination))
+                    .tag("destination", destination)
+                    .register(meterRegistry);
+            Gauge.builder("application.outbox.lag", this, relay -> relay.lagSeconds(destination))
+                    .tag("destination", destination)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "application-outbox-relay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * 新しいイベントがコミットされたことを通知する（待機中のリレーを起こす）
+     */
+    public void wakeUp() {
+        wakeUps.offer(Boolean.TRUE);
+    }
+
+    private void run() {
+        long nextMetrics = System.nanoTime();
+        long nextCleanup = System.nanoTime();
+        while (running) {
+            boolean more = false;
+            try {
+                for (ApplicationEventSink sink : sinks) {
+                    more |= relay(sink);
+                }
+                long now = System.nanoTime();
+                if (now - nextMetrics >= 0) {
+                    backlog = applicationOutboxRepository.findBacklog();
+                    nextMetrics = now + metricsInterval.toNanos();
+                }
+                if (now - nextCleanup >= 0) {
+                    int deleted = applicationOutboxRepository.deletePublishedBefore(Instant.now().minus(retention));
+                    if (deleted > 0) {
+                        log.info("Deleted {} published outbox events", deleted);
+                    }
+                    nextCleanup = now + TimeUnit.HOURS.toNanos(1);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Application outbox relay failed; retrying in {}", pollInterval, e);
+                more = false;
+            }
+            if (!more) {
+                try {
+                    wakeUps.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 1バッチ分を配信する
+     *
+     * @return バッチが満杯だった（続きがある可能性がある）場合 true
+     */
+    private boolean relay(ApplicationEventSink sink) {
+        String destination = sink.getDestination();
+        List<Pending> batch = applicationOutboxRepository.claim(destination, batchSize, lease);
+        if (batch.isEmpty()) {
+            return false;
+        }
+        List<Pending> readable = new ArrayList<>(batch.size());
+        List<ApplicationEvent> events = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            try {
+                events.add(objectMapper.readValue(pending.payload(), ApplicationEvent.class));
+                readable.add(pending);
+            } catch (IOException e) {
+                applicationOutboxRepository.markFailed(List.of(pending.id()), truncate(e.getMessage()), null);
+                meterRegistry.counter("application.outbox.dead", "destination", destination).increment();
+            }
+        }
+        if (readable.isEmpty()) {
+            return batch.size() == batchSize;
+        }
+        try {
+            sink.deliver(events);
+        } catch (RejectedEventsException e) {
+            rejected(destination, readable, e.getRejected());
+            return batch.size() == batchSize;
+        } catch (RuntimeException e) {
+            failed(destination, readable, e);
+            return false;
+        }
+        published(destination, readable);
+        return batch.size() == batchSize;
+    }
+
+    private void published(String destination, List<Pending> delivered) {
+        if (delivered.isEmpty()) {
+            return;
+        }
+        applicationOutboxRepository.markPublished(delivered.stream().map(Pending::id).toList());
+        Instant now = Instant.now();
+        Timer lag = meterRegistry.timer("application.outbox.delivery.lag", "destination", destination);
+        for (Pending pending : delivered) {
+            lag.record(Duration.between(pending.createdAt(), now));
+        }
+        meterRegistry.counter("application.outbox.delivered", "destination", destination)
+                .increment(delivered.size());
+    }
+
+    /**
+     * 配信先に拒否されたイベントは再配信しても受け付けられないため配信を停止し、残りを配信済みにする
+     */
+    private void rejected(String destination, List<Pending> batch, Map<Integer, String> rejected) {
+        List<Pending> delivered = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            String reason = rejected.get(i);
+            if (reason == null) {
+                delivered.add(batch.get(i));
+                continue;
+            }
+            Pending pending = batch.get(i);
+            applicationOutboxRepository.markFailed(List.of(pending.id()), truncate(reason), null);
+            log.error("Application event {} rejected by {}: {}", pending.id(), destination, reason);
+        }
+        meterRegistry.counter("application.outbox.dead", "destination", destination)
+                .increment(batch.size() - delivered.size());
+        published(destination, delivered);
+    }
+
+    /**
+     * 配信失敗を記録する。試行回数が上限に達したイベントは配信を停止する
+     */
+    private void failed(String destination, List<Pending> batch, RuntimeException error) {
+        String message = truncate(error.getMessage());
+        meterRegistry.counter("application.outbox.failures", "destination", destination).increment(batch.size());
+        List<Long> exhausted = batch.stream().filter(p -> p.attempts() >= maxAttempts).map(Pending::id).toList();
+        if (!exhausted.isEmpty()) {
+            applicationOutboxRepository.markFailed(exhausted, message, null);
+            meterRegistry.counter("application.outbox.dead", "destination", destination).increment(exhausted.size());
+            log.error("Giving up delivering {} application events to {} after {} attempts: {}", exhausted.size(),
+                    destination, maxAttempts, message);
+        }
+        // 同じバッチの試行回数は揃っているとは限らないため、最小の試行回数でバックオフを決める
+        List<Pending> retry = batch.stream().filter(p -> p.attempts() < maxAttempts).toList();
+        if (!retry.isEmpty()) {
+            int attempts = retry.stream().mapToInt(Pending::attempts).min().orElse(1);
+            Instant retryAt = Instant.now().plusMillis(backoff(attempts));
+            applicationOutboxRepository.markFailed(retry.stream().map(Pending::id).toList(), message, retryAt);
+            log.warn("Delivering {} application events to {} failed (attempt {}); retrying at {}: {}", retry.size(),
+                    destination, attempts, retryAt, message);
+        }
+    }
+
+    /**
+     * フルジッター付き指数バックオフ: [initial, min(max, initial * 2^(attempts-1))] の一様乱数
+     */
+    private long backoff(int attempts) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempts - 1, 20));
+        return initialBackoff.toMillis() + ThreadLocalRandom.current().nextLong(
+                Math.max(ceiling - initialBackoff.toMillis(), 0) + 1);
+    }
+
+    private double pending(String destination) {
+        Backlog destinationBacklog = backlog.get(destination);
+        return destinationBacklog == null ? 0 : destinationBacklog.pending();
+    }
+
+    private double lagSeconds(String destination) {
+        Backlog destinationBacklog = backlog.get(destination);
+        if (destinationBacklog == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(destinationBacklog.oldestCreatedAt(), Instant.now()).toMillis() / 1000.0);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
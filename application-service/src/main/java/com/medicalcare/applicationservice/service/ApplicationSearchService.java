@@ -0,0 +1,120 @@
+package com.medicalcare.applicationservice.service;
+
+import com.medicalcare.applicationservice.dto.ApplicationSummary;
+import com.medicalcare.applicationservice.dto.CursorPage;
+import com.medicalcare.applicationservice.dto.SearchCursor;
+import com.medicalcare.applicationservice.repository.ApplicationSearchRepository;
+import com.medicalcare.applicationservice.repository.ApplicationSearchRepository.Hit;
+import com.medicalcare.applicationservice.repository.ApplicationSearchRepository.Mode;
+import com.medicalcare.applicationservice.repository.ApplicationSearchRepository.SearchFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 申請検索サービス
+ * 空白で単語を区切れる検索語は tsvector の全文検索、日本語などの CJK 文字を含む検索語は
+ * pg_trgm の部分一致検索で処理する
+ * <p>
+ * 起動時に検索用の列とインデックスがなければ作成する。pg_trgm を作成できない場合、
+ * CJK 文字を含む検索はインデックスを使わない部分一致になる。
+ * また pg_trgm が日本語のトライグラムを抽出するには、DB のロケールが CJK 文字を英数字として扱う必要がある
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class ApplicationSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationSearchService.class);
+
+    // 全 application-service インスタンスで共有する pg_advisory_xact_lock のキー
+    private static final long LOCK_KEY = 0x4150505352L;
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final ApplicationSearchRepository applicationSearchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.search.create-indexes:true}")
+    private boolean createIndexes;
+
+    private volatile boolean trigramAvailable;
+
+    @Autowired
+    public ApplicationSearchService(ApplicationSearchRepository applicationSearchRepository,
+            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.applicationSearchRepository = applicationSearchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (createIndexes) {
+            // 拡張の作成に失敗するとトランザクションが中断されるため、列・インデックスとは別に実行する
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+                    applicationSearchRepository.createTrigramExtension();
+                });
+            } catch (DataAccessException e) {
+                log.warn("Could not create pg_trgm; CJK searches will scan applications: {}",
+                        e.getMostSpecificCause().getMessage());
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+                applicationSearchRepository.createFullTextIndex();
+                if (applicationSearchRepository.isTrigramAvailable()) {
+                    applicationSearchRepository.createTrigramIndex();
+                }
+            });
+        }
+        trigramAvailable = applicationSearchRepository.isTrigramAvailable();
+    }
+
+    /**
+     * タイトル・説明を検索し、関連度の高い順にキーセットページで返す
+     *
+     * @throws IllegalArgumentException 検索語が空・長すぎる場合、またはカーソルが不正な場合
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ApplicationSummary> search(String query, SearchFilter filter, String cursor, int size) {
+        String normalized = query == null ? "" : query.strip();
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (normalized.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        SearchCursor position = SearchCursor.decode(cursor);
+        int pageSize = size <= 0 ? ApplicationService.DEFAULT_PAGE_SIZE
+                : Math.min(size, ApplicationService.MAX_PAGE_SIZE);
+        Mode mode = containsCjk(normalized) ? Mode.TRIGRAM : Mode.FULL_TEXT;
+        List<Hit> hits = applicationSearchRepository.search(mode, normalized, filter, position, pageSize + 1,
+                trigramAvailable);
+        List<ApplicationSummary> items = hits.stream().limit(pageSize).map(Hit::application).toList();
+        if (hits.size() <= pageSize) {
+            return new CursorPage<>(items, null);
+        }
+        Hit last = hits.get(pageSize - 1);
+        return new CursorPage<>(items, new SearchCursor(last.rank(), last.application().getId()).encode());
+    }
+
+    private static boolean containsCjk(String text) {
+        return text.codePoints().anyMatch(codePoint -> {
+            Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+            return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+        });
+    }
+}
@@ -1,15 +1,30 @@
 package com.medicalcare.applicationservice.service;
 
 import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.domain.ApplicationTransition;
+import com.medicalcare.applicationservice.dto.ApplicationCursor;
+import com.medicalcare.applicationservice.dto.ApplicationQuery;
+import com.medicalcare.applicationservice.dto.ApplicationSummary;
+import com.medicalcare.applicationservice.dto.BulkTransitionRequest;
+import com.medicalcare.applicationservice.dto.BulkTransitionResult;
+import com.medicalcare.applicationservice.dto.CursorPage;
 import com.medicalcare.applicationservice.repository.ApplicationRepository;
+import com.medicalcare.applicationservice.repository.ApplicationSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 申請サービス
@@ -19,67 +34,167 @@ import java.util.UUID;
 @Transactional
 public class ApplicationService {
 
+    /**
+     * 一覧取得のデフォルトページサイズ
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * 一覧取得の最大ページサイズ
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final ApplicationRepository applicationRepository;
+    private final ApplicationStateMachine applicationStateMachine;
+    private final ApplicationCache applicationCache;
+    private final ApplicationStatusCounter applicationStatusCounter;
+    private final ApplicationNumberGenerator applicationNumberGenerator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public ApplicationService(ApplicationRepository applicationRepository) {
+    public ApplicationService(ApplicationRepository applicationRepository,
+            ApplicationStateMachine applicationStateMachine, ApplicationCache applicationCache,
+            ApplicationStatusCounter applicationStatusCounter, ApplicationNumberGenerator applicationNumberGenerator) {
         this.applicationRepository = applicationRepository;
+        this.applicationStateMachine = applicationStateMachine;
+        this.applicationCache = applicationCache;
+        this.applicationStatusCounter = applicationStatusCounter;
+        this.applicationNumberGenerator = applicationNumberGenerator;
     }
 
     /**
-     * 全申請を取得
+     * 全申請をキーセットページで取得
      */
     @Transactional(readOnly = true)
-    public List<Application> findAll() {
-        return applicationRepository.findAll();
+    public CursorPage<ApplicationSummary> findAll(String cursor, int size) {
+        return findPage(cursor, size, applicationRepository::findPage);
     }
 
     /**
-     * IDで申請を取得
+     * IDで申請を取得（キャッシュ経由）
      */
     @Transactional(readOnly = true)
     public Optional<Application> findById(Long id) {
-        return applicationRepository.findById(id);
+        return applicationCache.get(id, () -> applicationRepository.findById(id));
     }
 
     /**
-     * 申請番号で申請を取得
+     * 申請番号で申請を取得（キャッシュ経由）
      */
     @Transactional(readOnly = true)
     public Optional<Application> findByApplicationNumber(String applicationNumber) {
-        return applicationRepository.findByApplicationNumber(applicationNumber);
+        return applicationCache.getByApplicationNumber(applicationNumber,
+                () -> applicationRepository.findByApplicationNumber(applicationNumber));
+    }
+
+    /**
+     * ユーザーIDで申請一覧をキーセットページで取得
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ApplicationSummary> findByUserId(Long userId, String cursor, int size) {
+        return findPage(cursor, size,
+                (createdAt, id, pageable) -> applicationRepository.findPageByUserId(userId, createdAt, id, pageable));
+    }
+
+    /**
+     * 医療機関IDで申請一覧をキーセットページで取得
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ApplicationSummary> findByInstitutionId(Long institutionId, String cursor, int size) {
+        return findPage(cursor, size, (createdAt, id, pageable) -> applicationRepository
+                .findPageByInstitutionId(institutionId, createdAt, id, pageable));
+    }
+
+    /**
+     * ステータスで申請一覧をキーセットページで取得
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ApplicationSummary> findByStatus(Application.ApplicationStatus status, String cursor, int size) {
+        return findPage(cursor, size,
+                (createdAt, id, pageable) -> applicationRepository.findPageByStatus(status, createdAt, id, pageable));
+    }
+
+    /**
+     * 申請タイプで申請一覧をキーセットページで取得
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ApplicationSummary> findByApplicationType(String applicationType, String cursor, int size) {
+        return findPage(cursor, size, (createdAt, id, pageable) -> applicationRepository
+                .findPageByApplicationType(applicationType, createdAt, id, pageable));
+    }
+
+    /**
+     * 医療機関に申請したことのあるユーザーIDを取得（ユーザーID順のキーセットページング）
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findUserIdsByInstitution(Long institutionId, Long afterUserId, int size) {
+        return applicationRepository.findUserIdsByInstitutionId(institutionId, afterUserId,
+                PageRequest.of(0, size));
+    }
+
+    /**
+     * 医療機関IDごとのステータス別件数を取得（applications は参照しない）
+     */
+    @Transactional(readOnly = true)
+    public Map<Application.ApplicationStatus, Long> countByInstitution(Long institutionId) {
+        return applicationStatusCounter.countByInstitution(institutionId);
+    }
+
+    /**
+     * ステータス別件数を applications から再集計（他のインスタンスが実行中の場合は false）
+     */
+    public boolean reconcileCounts() {
+        return applicationStatusCounter.reconcile();
+    }
+
+    /**
+     * 申請タイプごとのステータス別件数を取得（applications は参照しない）
+     */
+    @Transactional(readOnly = true)
+    public Map<Application.ApplicationStatus, Long> countByApplicationType(String applicationType) {
+        return applicationStatusCounter.countByApplicationType(applicationType);
+    }
+
+    /**
+     * 全申請を1件ずつコンシューマーへ流す（ヒープ使用量は件数に依存しない）
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Application> consumer) {
+        stream(applicationRepository.streamAll(), consumer);
     }
 
     /**
-     * ユーザーIDで申請一覧を取得
+     * ユーザーIDで申請を1件ずつコンシューマーへ流す
      */
     @Transactional(readOnly = true)
-    public List<Application> findByUserId(Long userId) {
-        return applicationRepository.findByUserId(userId);
+    public void streamByUserId(Long userId, Consumer<Application> consumer) {
+        stream(applicationRepository.streamByUserId(userId), consumer);
     }
 
     /**
-     * 医療機関IDで申請一覧を取得
+     * 医療機関IDで申請を1件ずつコンシューマーへ流す
      */
     @Transactional(readOnly = true)
-    public List<Application> findByInstitutionId(Long institutionId) {
-        return applicationRepository.findByInstitutionId(institutionId);
+    public void streamByInstitutionId(Long institutionId, Consumer<Application> consumer) {
+        stream(applicationRepository.streamByInstitutionId(institutionId), consumer);
     }
 
     /**
-     * ステータスで申請一覧を取得
+     * ステータスで申請を1件ずつコンシューマーへ流す
      */
     @Transactional(readOnly = true)
-    public List<Application> findByStatus(Application.ApplicationStatus status) {
-        return applicationRepository.findByStatus(status);
+    public void streamByStatus(Application.ApplicationStatus status, Consumer<Application> consumer) {
+        stream(applicationRepository.streamByStatus(status), consumer);
     }
 
     /**
-     * 申請タイプで申請一覧を取得
+     * 申請タイプで申請を1件ずつコンシューマーへ流す
      */
     @Transactional(readOnly = true)
-    public List<Application> findByApplicationType(String applicationType) {
-        return applicationRepository.findByApplicationType(applicationType);
+    public void streamByApplicationType(String applicationType, Consumer<Application> consumer) {
+        stream(applicationRepository.streamByApplicationType(applicationType), consumer);
     }
 
     /**
@@ -87,7 +202,7 @@ public class ApplicationService {
      */
     public Application create(Application application) {
         // 申請番号を生成
-        String applicationNumber = generateApplicationNumber();
+        String applicationNumber = applicationNumberGenerator.next();
         application.setApplicationNumber(applicationNumber);
 
         // 初期ステータスを設定
@@ -98,7 +213,9 @@ public class ApplicationService {
         application.setCreatedAt(now);
         application.setUpdatedAt(now);
 
-        return applicationRepository.save(application);
+        Application created = applicationRepository.save(application);
+        applicationStatusCounter.created(created);
+        return created;
     }
 
     /**
@@ -108,12 +225,18 @@ public class ApplicationService {
         Application application = applicationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Application not found with id: " + id));
 
+        if (!application.getApplicationType().equals(applicationDetails.getApplicationType())) {
+            applicationStatusCounter.typeChanged(application.getStatus(), application.getApplicationType(),
+                    applicationDetails.getApplicationType());
+        }
+
         // 更新可能なフィールドのみ更新
         application.setTitle(applicationDetails.getTitle());
         application.setDescription(applicationDetails.getDescription());
         application.setApplicationType(applicationDetails.getApplicationType());
         application.setUpdatedAt(LocalDateTime.now());
 
+        applicationCache.evict(id);
         return applicationRepository.save(application);
     }
 
@@ -124,87 +247,158 @@ public class ApplicationService {
         Application application = applicationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Application not found with id: " + id));
         applicationRepository.delete(application);
+        applicationStatusCounter.deleted(application);
+        applicationCache.evict(id);
+        applicationCache.evictApplicationNumber(application.getApplicationNumber());
     }
 
     /**
      * 申請を提出
+     *
+     * @param expectedVersion クライアントが参照したバージョン（null は不問）
      */
-    public Application submit(Long id) {
-        Application application = applicationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Application not found with id: " + id));
-
-        if (application.getStatus() != Application.ApplicationStatus.DRAFT) {
-            throw new RuntimeException("Application must be in DRAFT status to submit");
-        }
-
-        application.setStatus(Application.ApplicationStatus.SUBMITTED);
-        application.setSubmittedAt(LocalDateTime.now());
-        application.setUpdatedAt(LocalDateTime.now());
-
-        return applicationRepository.save(application);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Application submit(Long id, Long expectedVersion) {
+        return applicationStateMachine.transition(id, ApplicationTransition.SUBMIT, expectedVersion, null)
+                .application();
     }
 
     /**
      * 申請を承認
      */
-    public Application approve(Long id) {
-        Application application = applicationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Application not found with id: " + id));
-
-        if (application.getStatus() != Application.ApplicationStatus.SUBMITTED &&
-                application.getStatus() != Application.ApplicationStatus.REVIEWING) {
-            throw new RuntimeException("Application must be in SUBMITTED or REVIEWING status to approve");
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Application approve(Long id, Long expectedVersion) {
+        return applicationStateMachine.transition(id, ApplicationTransition.APPROVE, expectedVersion, null)
+                .application();
+    }
 
-        application.setStatus(Application.ApplicationStatus.APPROVED);
-        application.setApprovedAt(LocalDateTime.now());
-        application.setUpdatedAt(LocalDateTime.now());
+    /**
+     * 申請を却下
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Application reject(Long id, String rejectionReason, Long expectedVersion) {
+        return applicationStateMachine
+                .transition(id, ApplicationTransition.REJECT, expectedVersion, rejectionReason)
+                .application();
+    }
 
-        return applicationRepository.save(application);
+    /**
+     * 申請を取り下げ
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Application withdraw(Long id, Long expectedVersion) {
+        return applicationStateMachine.transition(id, ApplicationTransition.WITHDRAW, expectedVersion, null)
+                .application();
     }
 
     /**
-     * 申請を却下
+     * 申請を一括承認
      */
-    public Application reject(Long id, String rejectionReason) {
-        Application application = applicationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Application not found with id: " + id));
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkTransitionResult bulkApprove(BulkTransitionRequest request) {
+        return bulkTransition(ApplicationTransition.APPROVE, request);
+    }
 
-        if (application.getStatus() != Application.ApplicationStatus.SUBMITTED &&
-                application.getStatus() != Application.ApplicationStatus.REVIEWING) {
-            throw new RuntimeException("Application must be in SUBMITTED or REVIEWING status to reject");
-        }
+    /**
+     * 申請を一括却下
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkTransitionResult bulkReject(BulkTransitionRequest request) {
+        return bulkTransition(ApplicationTransition.REJECT, request);
+    }
 
-        application.setStatus(Application.ApplicationStatus.REJECTED);
-        application.setRejectedAt(LocalDateTime.now());
-        application.setRejectionReason(rejectionReason);
-        application.setUpdatedAt(LocalDateTime.now());
+    /**
+     * 申請を一括取り下げ
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkTransitionResult bulkWithdraw(BulkTransitionRequest request) {
+        return bulkTransition(ApplicationTransition.WITHDRAW, request);
+    }
 
-        return applicationRepository.save(application);
+    /**
+     * 条件を組み合わせて申請をキーセットページで取得
+     * fields を指定した場合はその属性だけを読み込む
+     *
+     * @throws IllegalArgumentException 条件・属性名・カーソルが不正な場合
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> query(ApplicationQuery query, List<String> fields, String cursor,
+            int size) {
+        ApplicationCursor position = ApplicationCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
+        List<Map<String, Object>> rows = applicationRepository.findPageMatching(
+                ApplicationSpecifications.matching(query), fields, position.getCreatedAt(), position.getId(),
+                pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Map<String, Object>> items = rows.subList(0, pageSize);
+        Map<String, Object> last = items.get(pageSize - 1);
+        return new CursorPage<>(items,
+                new ApplicationCursor((LocalDateTime) last.get("createdAt"), (Long) last.get("id")).encode());
     }
 
     /**
-     * 申請を取り下げ
+     * ページサイズを上限内に丸める
      */
-    public Application withdraw(Long id) {
-        Application application = applicationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Application not found with id: " + id));
+    private static int normalizePageSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
 
-        if (application.getStatus() != Application.ApplicationStatus.DRAFT &&
-                application.getStatus() != Application.ApplicationStatus.SUBMITTED) {
-            throw new RuntimeException("Application must be in DRAFT or SUBMITTED status to withdraw");
+    /**
+     * キーセットページを取得
+     * 1件多く読み込み、次ページの有無を判定する
+     */
+    private CursorPage<ApplicationSummary> findPage(String cursor, int size, KeysetQuery query) {
+        ApplicationCursor position = ApplicationCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
+        List<ApplicationSummary> rows = query.fetch(position.getCreatedAt(), position.getId(),
+                PageRequest.ofSize(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
         }
+        List<ApplicationSummary> items = rows.subList(0, pageSize);
+        return new CursorPage<>(items, ApplicationCursor.of(items.get(pageSize - 1)).encode());
+    }
 
-        application.setStatus(Application.ApplicationStatus.WITHDRAWN);
-        application.setUpdatedAt(LocalDateTime.now());
+    /**
+     * IDまたは条件で対象を指定した一括遷移
+     *
+     * @throws IllegalArgumentException 対象が指定されていない、またはステータスが不正な場合
+     */
+    private BulkTransitionResult bulkTransition(ApplicationTransition transition, BulkTransitionRequest request) {
+        if (request.hasIds()) {
+            return applicationStateMachine.transitionAll(request.getIds(), transition, request.getRejectionReason());
+        }
+        if (!request.hasFilter()) {
+            throw new IllegalArgumentException("Either ids or institutionId/status must be specified");
+        }
+        Application.ApplicationStatus status = request.getStatus() == null ? null
+                : Application.ApplicationStatus.valueOf(request.getStatus().toUpperCase());
+        return applicationStateMachine.transitionMatching(transition, request.getInstitutionId(), status,
+                request.getRejectionReason());
+    }
 
-        return applicationRepository.save(application);
+    /**
+     * ストリームを消費し、処理済みのエンティティを永続化コンテキストから切り離す
+     */
+    private void stream(Stream<Application> applications, Consumer<Application> consumer) {
+        try (applications) {
+            applications.forEach(application -> {
+                consumer.accept(application);
+                entityManager.detach(application);
+            });
+        }
     }
 
     /**
-     * 申請番号を生成
+     * キーセットページ取得クエリ
      */
-    private String generateApplicationNumber() {
-        return "APP-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    @FunctionalInterface
+    private interface KeysetQuery {
+        List<ApplicationSummary> fetch(LocalDateTime createdAt, Long id, Pageable pageable);
     }
 }
\ No newline at end of file
@@ -0,0 +1,244 @@
+package com.medicalcare.applicationservice.service;
+
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.domain.ApplicationTransition;
+import com.medicalcare.applicationservice.dto.BulkTransitionResult;
+import com.medicalcare.applicationservice.exception.ApplicationConflictException;
+import com.medicalcare.applicationservice.exception.ApplicationNotFoundException;
+import com.medicalcare.applicationservice.exception.InvalidStatusTransitionException;
+import com.medicalcare.applicationservice.repository.ApplicationStatusRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 申請ステータスの状態遷移エンジン
+ * 読み込みと保存を行わず、条件付きUPDATE 1回で遷移させ、同じトランザクションでステータス件数の更新と
+ * アウトボックスへのイベント書き込みを行う。
+ * ロック競合・デッドロックなどの一時的な競合はジッター付き指数バックオフで再試行し、
+ * 競合回数と再試行回数をメトリクス（application.transition.conflicts / retries）に記録する
+ */
+@Component
+public class ApplicationStateMachine {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationStateMachine.class);
+
+    private final ApplicationStatusRepository applicationStatusRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationCache applicationCache;
+    private final ApplicationStatusCounter applicationStatusCounter;
+    private final ApplicationEventOutbox applicationEventOutbox;
+
+    @Value("${application.transition.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${application.transition.initial-backoff:20ms}")
+    private Duration initialBackoff;
+
+    @Value("${application.transition.max-backoff:500ms}")
+    private Duration maxBackoff;
+
+    @Value("${application.transition.bulk-chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${application.transition.bulk-max-size:10000}")
+    private int bulkMaxSize;
+
+    @Autowired
+    public ApplicationStateMachine(ApplicationStatusRepository applicationStatusRepository,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry, ApplicationCache applicationCache,
+            ApplicationStatusCounter applicationStatusCounter, ApplicationEventOutbox applicationEventOutbox) {
+        this.applicationStatusRepository = applicationStatusRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.applicationCache = applicationCache;
+        this.applicationStatusCounter = applicationStatusCounter;
+        this.applicationEventOutbox = applicationEventOutbox;
+    }
+
+    /**
+     * ステータスを遷移させる
+     *
+     * @param expectedVersion クライアントが参照したバージョン（null は不問）
+     * @throws ApplicationNotFoundException     申請が存在しない場合
+     * @throws InvalidStatusTransitionException 現在のステータスから遷移できない場合
+     * @throws ApplicationConflictException     バージョン不一致、または再試行しても競合が解消しない場合
+     */
+    public ApplicationStatusRepository.StatusChange transition(Long id, ApplicationTransition transition,
+            Long expectedVersion, String rejectionReason) {
+        return withRetry(transition, "Application " + id,
+                () -> attempt(id, transition, expectedVersion, rejectionReason));
+    }
+
+    /**
+     * 指定IDの申請をまとめて遷移させる
+     * bulk-chunk-size 件ずつ別トランザクションで処理し、結果はリクエストのID順で返す
+     *
+     * @throws IllegalArgumentException IDが bulk-max-size 件を超える場合
+     */
+    public BulkTransitionResult transitionAll(Collection<Long> ids, ApplicationTransition transition,
+            String rejectionReason) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinctIds.size() > bulkMaxSize) {
+            throw new IllegalArgumentException("At most " + bulkMaxSize + " applications can be transitioned at once");
+        }
+        BulkTransitionResult result = new BulkTransitionResult();
+        for (int from = 0; from < distinctIds.size(); from += bulkChunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + bulkChunkSize, distinctIds.size()));
+            transitionChunk(chunk, transition, rejectionReason, result);
+        }
+        return result;
+    }
+
+    /**
+     * 医療機関ID・ステータスの条件に一致する申請をまとめて遷移させる（最大 bulk-max-size 件）
+     *
+     * @param institutionId 医療機関ID（null は不問）
+     * @param status        ステータス（null は遷移元として許可された全ステータス）
+     */
+    public BulkTransitionResult transitionMatching(ApplicationTransition transition, Long institutionId,
+            Application.ApplicationStatus status, String rejectionReason) {
+        BulkTransitionResult result = new BulkTransitionResult();
+        if (status != null && !transition.isAllowedFrom(status)) {
+            return result;
+        }
+        long afterId = 0;
+        int processed = 0;
+        while (processed < bulkMaxSize) {
+            List<Long> chunk = applicationStatusRepository.findTransitionableIds(transition, institutionId, status,
+                    afterId, Math.min(bulkChunkSize, bulkMaxSize - processed));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            transitionChunk(chunk, transition, rejectionReason, result);
+            processed += chunk.size();
+            afterId = chunk.get(chunk.size() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * 1チャンク分を1トランザクションで遷移させ、ID単位の結果を追加する
+     * 遷移しなかったIDについてのみ、現在のステータスを1回の問い合わせで取得する
+     */
+    private void transitionChunk(List<Long> chunk, ApplicationTransition transition, String rejectionReason,
+            BulkTransitionResult result) {
+        ChunkOutcome outcome = withRetry(transition, chunk.size() + " applications",
+                () -> transactionTemplate.execute(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    Map<Long, ApplicationStatusRepository.Transitioned> previous = applicationStatusRepository
+                            .transitionAll(chunk, transition, rejectionReason, now);
+                    applicationStatusCounter.transitioned(previous.values(), transition.getTarget());
+                    applicationEventOutbox.transitioned(previous, transition, rejectionReason, now);
+                    applicationCache.evict(previous.keySet());
+                    Map<Long, Application.ApplicationStatus> current = previous.size() == chunk.size()
+                            ? Map.of()
+                            : applicationStatusRepository.findStatuses(
+                                    chunk.stream().filter(id -> !previous.containsKey(id)).toList());
+                    return new ChunkOutcome(previous, current);
+                }));
+        for (Long id : chunk) {
+            if (outcome.previous().containsKey(id)) {
+                result.addTransitioned(id, outcome.previous().get(id).previousStatus(), transition.getTarget());
+            } else if (outcome.current().containsKey(id)) {
+                result.addFailed(id, BulkTransitionResult.Outcome.INVALID_STATUS, outcome.current().get(id));
+            } else {
+                result.addFailed(id, BulkTransitionResult.Outcome.NOT_FOUND, null);
+            }
+        }
+    }
+
+    /**
+     * 1トランザクション分の処理を実行し、一時的な競合の場合はバックオフして再試行する
+     */
+    private <T> T withRetry(ApplicationTransition transition, String target, Supplier<T> action) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("application.transition.conflicts", "transition", transition.name())
+                        .increment();
+                if (attempt >= maxAttempts) {
+                    throw new ApplicationConflictException(
+                            target + " is being updated concurrently, please retry", e);
+                }
+                meterRegistry.counter("application.transition.retries", "transition", transition.name())
+                        .increment();
+                log.debug("Retrying {} of {} after concurrency failure (attempt {})", transition, target, attempt, e);
+                sleep(backoff(attempt));
+            }
+        }
+    }
+
+    private ApplicationStatusRepository.StatusChange attempt(Long id, ApplicationTransition transition,
+            Long expectedVersion, String rejectionReason) {
+        return transactionTemplate.execute(status -> {
+            ApplicationStatusRepository.StatusChange change = applicationStatusRepository
+                    .transition(id, transition, expectedVersion, rejectionReason, LocalDateTime.now())
+                    .orElseThrow(() -> rejection(id, transition, expectedVersion));
+            applicationStatusCounter.transitioned(change.application().getInstitutionId(),
+                    change.application().getApplicationType(), change.previousStatus(), transition.getTarget());
+            applicationEventOutbox.transitioned(change);
+            applicationCache.evict(id);
+            return change;
+        });
+    }
+
+    /**
+     * 更新されなかった理由を判定する（失敗時のみ追加の問い合わせを行う）
+     */
+    private RuntimeException rejection(Long id, ApplicationTransition transition, Long expectedVersion) {
+        ApplicationStatusRepository.Snapshot snapshot = applicationStatusRepository.findSnapshot(id)
+                .orElse(null);
+        if (snapshot == null) {
+            return new ApplicationNotFoundException(id);
+        }
+        if (!transition.isAllowedFrom(snapshot.status())) {
+            return new InvalidStatusTransitionException("Application must be in " + transition.getAllowedFrom()
+                    + " status to " + transition.name().toLowerCase() + " (current: " + snapshot.status() + ")");
+        }
+        meterRegistry.counter("application.transition.conflicts", "transition", transition.name()).increment();
+        return new ApplicationConflictException("Application " + id + " has version " + snapshot.version()
+                + ", expected " + expectedVersion);
+    }
+
+    /**
+     * フルジッター付き指数バックオフ: [0, min(max, initial * 2^(attempt-1))) の一様乱数
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(Math.max(ceiling, 1));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationConflictException("Interrupted while waiting to retry status transition", e);
+        }
+    }
+
+    /**
+     * 1チャンク分の結果: 遷移したID → 遷移前のステータス、遷移しなかったID → 現在のステータス
+     */
+    private record ChunkOutcome(Map<Long, ApplicationStatusRepository.Transitioned> previous,
+            Map<Long, Application.ApplicationStatus> current) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.medicalcare.applicationservice.service;
+
+import com.medicalcare.applicationservice.domain.Application;
+import com.medicalcare.applicationservice.repository.ApplicationStatusCountRepository;
+import com.medicalcare.applicationservice.repository.ApplicationStatusCountRepository.Delta;
+import com.medicalcare.applicationservice.repository.ApplicationStatusCountRepository.Dimension;
+import com.medicalcare.applicationservice.repository.ApplicationStatusRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 申請ステータス件数の集計
+ * 作成・削除・ステータス遷移と同じトランザクションで件数を増減し、
+ * 件数の取得では applications を参照しない
+ * <p>
+ * 起動時に件数テーブルが空であれば applications から集計して初期化する。
+ * 件数のずれ（手動でのデータ修正など、このクラスを経由しない変更）は定期的な再集計で解消する
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ApplicationStatusCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationStatusCounter.class);
+
+    // 全 application-service インスタンスで共有する pg_advisory_xact_lock のキー
+    private static final long LOCK_KEY = 0x4150504354L;
+
+    private static final Comparator<CountKey> KEY_ORDER = Comparator.comparing(CountKey::dimension)
+            .thenComparing(CountKey::dimensionValue)
+            .thenComparing(CountKey::status);
+
+    private final ApplicationStatusCountRepository applicationStatusCountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.counts.slots:8}")
+    private int slots;
+
+    @Autowired
+    public ApplicationStatusCounter(ApplicationStatusCountRepository applicationStatusCountRepository,
+            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.applicationStatusCountRepository = applicationStatusCountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            applicationStatusCountRepository.createTableIfNotExists();
+            if (applicationStatusCountRepository.isEmpty()) {
+                applicationStatusCountRepository.rebuild();
+                log.info("Initialized application status counts from applications");
+            }
+        });
+    }
+
+    /**
+     * applications から件数を再集計する
+     * 他のインスタンスが初期化・再集計中の場合は何もせず false を返す
+     */
+    public boolean reconcile() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(" + LOCK_KEY + ")", Boolean.class))) {
+                return false;
+            }
+            long started = System.nanoTime();
+            applicationStatusCountRepository.rebuild();
+            log.info("Reconciled application status counts in {} ms", (System.nanoTime() - started) / 1_000_000);
+            return true;
+        }));
+    }
+
+    @Scheduled(cron = "${application.counts.reconcile-cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        if (!reconcile()) {
+            log.info("Skipped application status count reconcile: already running on another instance");
+        }
+    }
+
+    /**
+     * 医療機関IDごとのステータス別件数
+     */
+    @Transactional(readOnly = true)
+    public Map<Application.ApplicationStatus, Long> countByInstitution(Long institutionId) {
+        return applicationStatusCountRepository.countByStatus(Dimension.INSTITUTION, String.valueOf(institutionId));
+    }
+
+    /**
+     * 申請タイプごとのステータス別件数
+     */
+    @Transactional(readOnly = true)
+    public Map<Application.ApplicationStatus, Long> countByApplicationType(String applicationType) {
+        return applicationStatusCountRepository.countByStatus(Dimension.TYPE, applicationType);
+    }
+
+    /**
+     * 作成された申請を加算
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Application application) {
+        new Changes().add(application.getInstitutionId(), application.getApplicationType(), application.getStatus(), 1)
+                .apply();
+    }
+
+    /**
+     * 一括登録された申請を加算（件数行ごとに集約して1回のバッチで更新）
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Collection<Application> applications) {
+        Changes changes = new Changes();
+        for (Application application : applications) {
+            changes.add(application.getInstitutionId(), application.getApplicationType(), application.getStatus(), 1);
+        }
+        changes.apply();
+    }
+
+    /**
+     * 削除された申請を減算
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Application application) {
+        new Changes().add(application.getInstitutionId(), application.getApplicationType(), application.getStatus(), -1)
+                .apply();
+    }
+
+    /**
+     * 申請タイプの変更を反映（医療機関IDの件数は変わらない）
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void typeChanged(Application.ApplicationStatus status, String oldType, String newType) {
+        Changes changes = new Changes();
+        changes.add(Dimension.TYPE, oldType, status, -1);
+        changes.add(Dimension.TYPE, newType, status, 1);
+        changes.apply();
+    }
+
+    /**
+     * ステータス遷移を反映
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transitioned(Long institutionId, String applicationType, Application.ApplicationStatus from,
+            Application.ApplicationStatus to) {
+        new Changes().add(institutionId, applicationType, from, -1)
+                .add(institutionId, applicationType, to, 1)
+                .apply();
+    }
+
+    /**
+     * 一括遷移を反映（件数行ごとに集約して1回のバッチで更新）
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transitioned(Collection<ApplicationStatusRepository.Transitioned> transitioned,
+            Application.ApplicationStatus to) {
+        Changes changes = new Changes();
+        for (ApplicationStatusRepository.Transitioned row : transitioned) {
+            changes.add(row.institutionId(), row.applicationType(), row.previousStatus(), -1)
+                    .add(row.institutionId(), row.applicationType(), to, 1);
+        }
+        changes.apply();
+    }
+
+    /**
+     * 件数の増減を件数行ごとに集約する
+     */
+    private class Changes {
+
+        private final Map<CountKey, Long> deltas = new TreeMap<>(KEY_ORDER);
+
+        Changes add(Long institutionId, String applicationType, Application.ApplicationStatus status, long count) {
+            add(Dimension.INSTITUTION, String.valueOf(institutionId), status, count);
+            add(Dimension.TYPE, applicationType, status, count);
+            return this;
+        }
+
+        void add(Dimension dimension, String dimensionValue, Application.ApplicationStatus status, long count) {
+            deltas.merge(new CountKey(dimension, dimensionValue, status), count, Long::sum);
+        }
+
+        /**
+         * ランダムに選んだ1スロットへ、キー順に反映する（同時実行されてもロック順序が揃うためデッドロックしない）
+         */
+        void apply() {
+            int slot = ThreadLocalRandom.current().nextInt(slots);
+            List<Delta> batch = new ArrayList<>(deltas.size());
+            deltas.forEach((key, count) -> {
+                if (count != 0) {
+                    batch.add(new Delta(key.dimension(), key.dimensionValue(), key.status(), slot, count));
+                }
+            });
+            if (!batch.isEmpty()) {
+                applicationStatusCountRepository.applyDeltas(batch);
+            }
+        }
+    }
+
+    private record CountKey(Dimension dimension, String dimensionValue, Application.ApplicationStatus status) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.medicalcare.applicationservice.service;
+
+import com.medicalcare.applicationservice.client.AuditClient;
+import com.medicalcare.applicationservice.dto.ApplicationEvent;
+import com.medicalcare.applicationservice.exception.RejectedEventsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 監査サービスへの申請イベント配信
+ */
+@Component
+public class AuditEventSink implements ApplicationEventSink {
+
+    private final AuditClient auditClient;
+
+    @Autowired
+    public AuditEventSink(AuditClient auditClient) {
+        this.auditClient = auditClient;
+    }
+
+    @Override
+    public String getDestination() {
+        return "audit";
+    }
+
+    /**
+     * 拒否されたイベントを特定できない場合（中断した、または拒否理由が一部しか返されなかった場合）は
+     * 全件を再配信する（監査サービス側で eventId により重複排除される）
+     */
+    @Override
+    public void deliver(List<ApplicationEvent> events) {
+        AuditClient.BulkIngestResult result = auditClient.ingest(
+                events.stream().map(AuditEventSink::toAuditEvent).toList());
+        if (result == null || result.rejected() == 0) {
+            return;
+        }
+        if (!result.complete() || result.errors() == null || result.errors().size() < result.rejected()) {
+            throw new IllegalStateException("Audit service rejected " + result.rejected() + " of " + events.size()
+                    + " events" + (result.complete() ? "" : " and stopped ingesting"));
+        }
+        Map<Integer, String> rejected = new HashMap<>();
+        for (AuditClient.RowError error : result.errors()) {
+            rejected.put((int) error.index(), error.message());
+        }
+        throw new RejectedEventsException(rejected);
+    }
+
+    private static AuditClient.AuditEvent toAuditEvent(ApplicationEvent event) {
+        StringBuilder details = new StringBuilder("applicationNumber=").append(event.getApplicationNumber())
+                .append(", status=").append(event.getPreviousStatus()).append("->").append(event.getStatus());
+        if (event.getRejectionReason() != null) {
+            details.append(", rejectionReason=").append(event.getRejectionReason());
+        }
+        return new AuditClient.AuditEvent(event.getEventId(), String.valueOf(event.getUserId()),
+                event.getEventType(), "application", String.valueOf(event.getApplicationId()), details.toString());
+    }
+}
@@ -0,0 +1,32 @@
+package com.medicalcare.applicationservice.service;
+
+import com.medicalcare.applicationservice.client.NotificationClient;
+import com.medicalcare.applicationservice.dto.ApplicationEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 通知サービスへの申請イベント配信
+ */
+@Component
+public class NotificationEventSink implements ApplicationEventSink {
+
+    private final NotificationClient notificationClient;
+
+    @Autowired
+    public NotificationEventSink(NotificationClient notificationClient) {
+        this.notificationClient = notificationClient;
+    }
+
+    @Override
+    public String getDestination() {
+        return "notification";
+    }
+
+    @Override
+    public void deliver(List<ApplicationEvent> events) {
+        notificationClient.deliverApplicationEvents(events);
+    }
+}
@@ -0,0 +1,15 @@
+package com.medicalcare.applicationservice.service;
+
+import java.util.UUID;
+
+/**
+ * 従来方式の申請番号ジェネレーター（UUIDの先頭16進8桁）
+ * 約4.3億通りしかないため件数が増えると重複し得る。比較・移行用に残している
+ */
+public class RandomApplicationNumberGenerator implements ApplicationNumberGenerator {
+
+    @Override
+    public String next() {
+        return PREFIX + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
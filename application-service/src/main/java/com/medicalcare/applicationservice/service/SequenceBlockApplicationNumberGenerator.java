@@ -0,0 +1,70 @@
+package com.medicalcare.applicationservice.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * DBシーケンスのブロック事前割り当てによる申請番号ジェネレーター
+ * シーケンスは blockSize ずつ増加し、各インスタンスは取得した値から blockSize 個の番号を
+ * DBに問い合わせずに払い出す。ブロックはインスタンス間で重ならないため、ノードIDの設定なしで
+ * 重複しない。番号はインスタンス内では単調増加し、全体ではブロック単位で増加する
+ * <p>
+ * 形式は APP- + 10桁以上の10進数で、従来の APP- + 16進8桁とは長さが異なるため衝突しない
+ */
+public class SequenceBlockApplicationNumberGenerator implements ApplicationNumberGenerator {
+
+    private static final int MIN_DIGITS = 10;
+
+    private final LongSupplier blockAllocator;
+    private final int blockSize;
+
+    private long next;
+    private long limit;
+
+    /**
+     * @param blockAllocator 新しいブロックの先頭値を返す（DBシーケンスの nextval）
+     * @param blockSize      シーケンスの増分と同じ値
+     */
+    public SequenceBlockApplicationNumberGenerator(LongSupplier blockAllocator, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.blockAllocator = blockAllocator;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String next() {
+        return format(nextValue());
+    }
+
+    private synchronized long nextValue() {
+        if (next == limit) {
+            next = blockAllocator.getAsLong();
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+
+    /**
+     * APP- に続けて値を10桁以上でゼロ埋めした番号（文字配列1つと文字列1つのみ割り当てる）
+     */
+    static String format(long value) {
+        int digits = Math.max(MIN_DIGITS, digits(value));
+        char[] chars = new char[PREFIX.length() + digits];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(chars);
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
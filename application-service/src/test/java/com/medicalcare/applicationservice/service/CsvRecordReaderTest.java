@@ -0,0 +1,83 @@
+package com.medicalcare.applicationservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void readsPlainRecords() throws IOException {
+        assertThat(readAll("a,b,c\n1,2,3\n")).containsExactly(List.of("a", "b", "c"), List.of("1", "2", "3"));
+    }
+
+    @Test
+    void lastRecordWithoutLineBreak() throws IOException {
+        assertThat(readAll("a,b\n1,2")).containsExactly(List.of("a", "b"), List.of("1", "2"));
+    }
+
+    @Test
+    void acceptsCrLfAndBareCr() throws IOException {
+        assertThat(readAll("a,b\r\n1,2\r3,4\r\n"))
+                .containsExactly(List.of("a", "b"), List.of("1", "2"), List.of("3", "4"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertThat(readAll(",a,,\n")).containsExactly(List.of("", "a", "", ""));
+    }
+
+    @Test
+    void emptyLineIsOneEmptyField() throws IOException {
+        assertThat(readAll("a\n\nb\n")).containsExactly(List.of("a"), List.of(""), List.of("b"));
+    }
+
+    @Test
+    void quotedFieldsMayContainSeparatorsAndLineBreaks() throws IOException {
+        assertThat(readAll("\"a,b\",\"line1\nline2\",\"x\r\ny\"\nnext\n"))
+                .containsExactly(List.of("a,b", "line1\nline2", "x\r\ny"), List.of("next"));
+    }
+
+    @Test
+    void doubledQuoteIsLiteralQuote() throws IOException {
+        assertThat(readAll("\"say \"\"hi\"\"\",\"\"\"\",\"\"\n"))
+                .containsExactly(List.of("say \"hi\"", "\"", ""));
+    }
+
+    @Test
+    void quotedFieldAtEndOfInput() throws IOException {
+        assertThat(readAll("a,\"b\"")).containsExactly(List.of("a", "b"));
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldIsLiteral() throws IOException {
+        assertThat(readAll("ab\"c,d\n")).containsExactly(List.of("ab\"c", "d"));
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertThat(readAll("")).isEmpty();
+    }
+
+    @Test
+    void unterminatedQuoteFails() {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,\"b\nc"));
+
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class).hasMessageContaining("Unterminated");
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        for (List<String> record = reader.next(); record != null; record = reader.next()) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,143 @@
+package com.medicalcare.audit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Settings for time-range partitioning of audit_logs (audit.partitioning.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "audit.partitioning")
+public class AuditPartitionProperties {
+
+    private boolean enabled = true;
+
+    // Convert an existing, non-empty plain audit_logs table; the conversion briefly locks it exclusively
+    private boolean migrateExisting = false;
+
+    private Interval interval = Interval.MONTHLY;
+
+    // Partitions created ahead of the current one
+    private int premake = 3;
+
+    // Partitions older than this many intervals are removed from audit_logs; 0 keeps everything
+    private int retention = 0;
+
+    private RetentionAction retentionAction = RetentionAction.DETACH;
+
+    // Schema that detached partitions are moved into
+    private String archiveSchema = "audit_archive";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isMigrateExisting() {
+        return migrateExisting;
+    }
+
+    public void setMigrateExisting(boolean migrateExisting) {
+        this.migrateExisting = migrateExisting;
+    }
+
+    public Interval getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Interval interval) {
+        this.interval = interval;
+    }
+
+    public int getPremake() {
+        return premake;
+    }
+
+    public void setPremake(int premake) {
+        this.premake = premake;
+    }
+
+    public int getRetention() {
+        return retention;
+    }
+
+    public void setRetention(int retention) {
+        this.retention = retention;
+    }
+
+    public RetentionAction getRetentionAction() {
+        return retentionAction;
+    }
+
+    public void setRetentionAction(RetentionAction retentionAction) {
+        this.retentionAction = retentionAction;
+    }
+
+    public String getArchiveSchema() {
+        return archiveSchema;
+    }
+
+    public void setArchiveSchema(String archiveSchema) {
+        this.archiveSchema = archiveSchema;
+    }
+
+    /**
+     * Width of one partition.
+     */
+    public enum Interval {
+        DAILY {
+            @Override
+            public LocalDate start(LocalDate date) {
+                return date;
+            }
+
+            @Override
+            public LocalDate plus(LocalDate start, long intervals) {
+                return start.plusDays(intervals);
+            }
+        },
+        WEEKLY {
+            @Override
+            public LocalDate start(LocalDate date) {
+                return date.with(DayOfWeek.MONDAY);
+            }
+
+            @Override
+            public LocalDate plus(LocalDate start, long intervals) {
+                return start.plusWeeks(intervals);
+            }
+        },
+        MONTHLY {
+            @Override
+            public LocalDate start(LocalDate date) {
+                return date.withDayOfMonth(1);
+            }
+
+            @Override
+            public LocalDate plus(LocalDate start, long intervals) {
+                return start.plusMonths(intervals);
+            }
+        };
+
+        // First day of the interval containing date
+        public abstract LocalDate start(LocalDate date);
+
+        public abstract LocalDate plus(LocalDate start, long intervals);
+    }
+
+    /**
+     * What happens to partitions past the retention window.
+     */
+    public enum RetentionAction {
+        // Detach and move to the archive schema, keeping the data for offline export
+        DETACH,
+        // Drop the partition and its data
+        DROP
+    }
+}
@@ -0,0 +1,123 @@
+package com.medicalcare.audit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings for the asynchronous audit log write pipeline (audit.write.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "audit.write")
+public class AuditWriteProperties {
+
+    // When false, createAuditLog saves synchronously as before
+    private boolean async = true;
+
+    // Maximum number of audit events waiting to be written
+    private int capacity = 65536;
+
+    // Maximum rows per batch insert
+    private int batchSize = 500;
+
+    // How long the writer waits to fill a batch before flushing a partial one
+    private Duration linger = Duration.ofMillis(50);
+
+    // How long a caller blocks on a full buffer before being rejected
+    private Duration offerTimeout = Duration.ofMillis(100);
+
+    private final Journal journal = new Journal();
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getLinger() {
+        return linger;
+    }
+
+    public void setLinger(Duration linger) {
+        this.linger = linger;
+    }
+
+    public Duration getOfferTimeout() {
+        return offerTimeout;
+    }
+
+    public void setOfferTimeout(Duration offerTimeout) {
+        this.offerTimeout = offerTimeout;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Local append-only journal written before an event is acknowledged.
+     */
+    public static class Journal {
+
+        private boolean enabled = false;
+
+        private String directory = System.getProperty("java.io.tmpdir") + "/audit-journal";
+
+        // Events per segment file; a segment is deleted once all its events are in the database
+        private int segmentSize = 10000;
+
+        // Force each append to disk (survives power loss, not just a process crash)
+        private boolean fsync = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.medicalcare.audit.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Moves audit_logs.id from IDENTITY to the pooled sequence audit_logs_id_seq, so Hibernate can batch
+ * inserts. The sequence increment is set to audit.id.allocation-size and Hibernate reads it back as its
+ * allocation size (hibernate.id.sequence.increment_size_mismatch_strategy=fix), so this runs before the
+ * EntityManagerFactory is built. AuditPartitionManager keeps using the same sequence.
+ * <p>
+ * Shrinking the allocation size while older instances are still running can hand out overlapping ids.
+ */
+@Component(IdSequenceInitializer.BEAN_NAME)
+public class IdSequenceInitializer implements InitializingBean {
+
+    static final String BEAN_NAME = "idSequenceInitializer";
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // Arbitrary key for pg_advisory_xact_lock shared by all audit-service instances
+    private static final long LOCK_KEY = 0x49445345514CL;
+
+    // Table -> sequence; must match @SequenceGenerator on the entity
+    private static final Map<String, String> SEQUENCES = Map.of("audit_logs", "audit_logs_id_seq");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.id.allocation-size:50}")
+    private int allocationSize;
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+                for (Map.Entry<String, String> entry : SEQUENCES.entrySet()) {
+                    migrate(statement, entry.getKey(), entry.getValue());
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private void migrate(Statement statement, String table, String sequence) throws SQLException {
+        boolean tableExists = queryString(statement, "SELECT to_regclass('" + table + "')::text") != null;
+        if (tableExists) {
+            String identity = queryString(statement, "SELECT attidentity::text FROM pg_attribute"
+                    + " WHERE attrelid = '" + table + "'::regclass AND attname = 'id'");
+            if (identity != null && !identity.isEmpty()) {
+                // Also drops the implicit <table>_id_seq of the identity
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+                log.info("Dropped IDENTITY from {}.id", table);
+            }
+        }
+        statement.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " INCREMENT BY " + allocationSize);
+        statement.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + allocationSize);
+        if (tableExists) {
+            // Continue after the existing ids; never move the sequence backwards
+            statement.execute("SELECT setval('" + sequence + "', m) FROM (SELECT max(id) AS m FROM " + table + ") t"
+                    + " WHERE m >= (SELECT last_value FROM " + sequence + ")");
+            statement.execute("ALTER SEQUENCE " + sequence + " OWNED BY " + table + ".id");
+        }
+    }
+
+    private static String queryString(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    /**
+     * Makes the EntityManagerFactory wait for the id sequences.
+     */
+    @Component
+    static class EntityManagerFactoryDependsOnIdSequences extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnIdSequences() {
+            super(BEAN_NAME);
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.medicalcare.audit.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalcare.audit.dto.AuditEventRequest;
+import com.medicalcare.audit.dto.BulkIngestResult;
 import com.medicalcare.audit.entity.AuditLog;
+import com.medicalcare.audit.repository.AuditLogExportRepository;
+import com.medicalcare.audit.service.AuditBufferFullException;
+import com.medicalcare.audit.service.AuditLogExporter;
 import com.medicalcare.audit.service.AuditService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -16,9 +29,17 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class AuditController {
     
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    
     @Autowired
     private AuditService auditService;
     
+    @Autowired
+    private AuditLogExporter auditLogExporter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping("/log")
     public ResponseEntity<AuditLog> createAuditLog(
             @RequestParam String userId,
@@ -31,8 +52,40 @@ public class AuditController {
         String ipAddress = getClientIpAddress(request);
         String userAgent = request.getHeader("User-Agent");
         
-        AuditLog auditLog = auditService.createAuditLog(userId, action, resource, resourceId, details, ipAddress, userAgent);
-        return ResponseEntity.ok(auditLog);
+        try {
+            AuditLog auditLog = auditService.createAuditLog(userId, action, resource, resourceId, details, ipAddress, userAgent);
+            if (auditService.isAsyncWriteEnabled()) {
+                return ResponseEntity.accepted().body(auditLog);
+            }
+            return ResponseEntity.ok(auditLog);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (AuditBufferFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+    
+    /**
+     * Bulk ingestion: accepts a JSON array or newline-delimited JSON of events and parses it
+     * incrementally from the request stream.
+     */
+    @PostMapping(value = "/log/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE })
+    public ResponseEntity<BulkIngestResult> createAuditLogsBulk(HttpServletRequest request) throws IOException {
+        String ipAddress = getClientIpAddress(request);
+        String userAgent = request.getHeader("User-Agent");
+        
+        // MappingIterator reads whitespace-separated root values and unwraps a root-level array,
+        // so one reader handles both body formats
+        try (MappingIterator<AuditEventRequest> events = objectMapper.readerFor(AuditEventRequest.class)
+                .readValues(request.getInputStream())) {
+            BulkIngestResult result = auditService.bulkCreateAuditLogs(events, ipAddress, userAgent);
+            if (!result.isComplete()) {
+                return ResponseEntity.badRequest().body(result);
+            }
+            return ResponseEntity.ok(result);
+        }
     }
     
     @GetMapping("/user/{userId}")
@@ -72,10 +125,34 @@ public class AuditController {
         return ResponseEntity.ok(logs);
     }
     
+    /**
+     * Full export streamed straight to the response as NDJSON (default) or CSV.
+     * Rows come in (timestamp, id) order; pass after = last id received to resume a dropped download.
+     */
     @GetMapping("/all")
-    public ResponseEntity<List<AuditLog>> getAllAuditLogs() {
-        List<AuditLog> logs = auditService.getAllAuditLogs();
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!"csv".equalsIgnoreCase(format) && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        AuditLogExportRepository.Position position;
+        try {
+            position = auditLogExporter.resumeAfter(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"audit-logs.csv\"")
+                    .body(outputStream -> auditLogExporter.exportCsv(outputStream, position, from, to));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(outputStream -> auditLogExporter.exportNdjson(outputStream, position, from, to));
     }
     
     @GetMapping("/health")
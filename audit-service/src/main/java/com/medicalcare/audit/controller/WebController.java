@@ -14,12 +14,14 @@ import java.util.List;
 @RequestMapping("/")
 public class WebController {
 
+    private static final int RECENT_LIMIT = 200;
+
     @Autowired
     private AuditService auditService;
 
     @GetMapping("/audit")
     public String audit(Model model) {
-        List<AuditLog> auditLogs = auditService.getAllAuditLogs();
+        List<AuditLog> auditLogs = auditService.getRecentAuditLogs(RECENT_LIMIT);
         model.addAttribute("auditLogs", auditLogs);
         return "audit";
     }
@@ -0,0 +1,90 @@
+package com.medicalcare.audit.dto;
+
+/**
+ * One audit event in a bulk ingestion request.
+ * ipAddress and userAgent default to the values of the bulk request itself; the timestamp is
+ * always assigned by the service. Events carrying an eventId are stored at most once, so producers
+ * that retry (such as an outbox relay) can resend a batch safely.
+ */
+public class AuditEventRequest {
+    
+    private String eventId;
+    
+    private String userId;
+    
+    private String action;
+    
+    private String resource;
+    
+    private String resourceId;
+    
+    private String details;
+    
+    private String ipAddress;
+    
+    private String userAgent;
+    
+    public String getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public void setAction(String action) {
+        this.action = action;
+    }
+    
+    public String getResource() {
+        return resource;
+    }
+    
+    public void setResource(String resource) {
+        this.resource = resource;
+    }
+    
+    public String getResourceId() {
+        return resourceId;
+    }
+    
+    public void setResourceId(String resourceId) {
+        this.resourceId = resourceId;
+    }
+    
+    public String getDetails() {
+        return details;
+    }
+    
+    public void setDetails(String details) {
+        this.details = details;
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+    
+    public String getUserAgent() {
+        return userAgent;
+    }
+    
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+}
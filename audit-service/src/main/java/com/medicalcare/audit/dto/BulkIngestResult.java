@@ -0,0 +1,90 @@
+package com.medicalcare.audit.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk audit ingestion request.
+ */
+public class BulkIngestResult {
+    
+    // Only the first errors are reported in detail; rejected still counts all of them
+    public static final int MAX_REPORTED_ERRORS = 100;
+    
+    private long accepted;
+    
+    private long rejected;
+    
+    // Events skipped because their eventId was already stored
+    private long duplicates;
+    
+    private boolean complete = true;
+    
+    private final List<RowError> errors = new ArrayList<>();
+    
+    public void addAccepted(int count) {
+        accepted += count;
+    }
+    
+    public void addDuplicates(int count) {
+        duplicates += count;
+    }
+    
+    public void reject(long index, String message) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(index, message));
+        }
+    }
+    
+    /**
+     * Stops ingestion at an unparseable event; events before it have already been stored.
+     */
+    public void abort(long index, String message) {
+        complete = false;
+        reject(index, message);
+    }
+    
+    public long getAccepted() {
+        return accepted;
+    }
+    
+    public long getRejected() {
+        return rejected;
+    }
+    
+    public long getDuplicates() {
+        return duplicates;
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    public List<RowError> getErrors() {
+        return errors;
+    }
+    
+    /**
+     * A rejected event and its zero-based position in the request body.
+     */
+    public static class RowError {
+        
+        private final long index;
+        
+        private final String message;
+        
+        public RowError(long index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+        
+        public long getIndex() {
+            return index;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+    }
+}
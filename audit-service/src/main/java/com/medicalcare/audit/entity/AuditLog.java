@@ -4,11 +4,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+// Indexes are created by AuditIndexManager, not by Hibernate: schema update would build them with a
+// blocking CREATE INDEX on the partitioned table
 @Table(name = "audit_logs")
 public class AuditLog {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_logs_id_seq")
+    @SequenceGenerator(name = "audit_logs_id_seq", sequenceName = "audit_logs_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -0,0 +1,52 @@
+package com.medicalcare.audit.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Event ids of ingested audit events (audit_event_keys), used to drop redelivered events.
+ * Kept outside the partitioned audit_logs table so uniqueness does not depend on the partition key.
+ */
+@Repository
+public class AuditEventKeyRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void createTableIfNotExists() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_event_keys ("
+                + "event_id varchar(64) PRIMARY KEY, "
+                + "received_at timestamp NOT NULL DEFAULT now())");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_audit_event_keys_received_at "
+                + "ON audit_event_keys (received_at)");
+    }
+
+    /**
+     * Records the given event ids and returns the ones that were not seen before.
+     * Must run in the same transaction as the insert of the events, so a failed insert releases the ids.
+     */
+    public Set<String> claim(List<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> claimed = new HashSet<>();
+        jdbcTemplate.query("INSERT INTO audit_event_keys (event_id) SELECT unnest(?::varchar[]) "
+                + "ON CONFLICT (event_id) DO NOTHING RETURNING event_id",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", eventIds.toArray())),
+                rs -> {
+                    claimed.add(rs.getString(1));
+                });
+        return claimed;
+    }
+
+    public int deleteReceivedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM audit_event_keys WHERE received_at < ?", Timestamp.valueOf(cutoff));
+    }
+}
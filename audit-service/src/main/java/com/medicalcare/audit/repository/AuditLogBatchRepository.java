@@ -0,0 +1,54 @@
+package com.medicalcare.audit.repository;
+
+import com.medicalcare.audit.entity.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Multi-row inserts into audit_logs.
+ * Goes through JDBC directly to skip the persistence context for high-volume ingestion; ids come from
+ * audit_logs_id_seq like Hibernate's (the driver rewrites the batch into multi-row INSERTs with
+ * reWriteBatchedInserts=true).
+ */
+@Repository
+public class AuditLogBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs "
+            + "(id, user_id, action, resource, resource_id, details, timestamp, ip_address, user_agent) "
+            + "VALUES (nextval('audit_logs_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AuditLog auditLog = auditLogs.get(i);
+                ps.setString(1, auditLog.getUserId());
+                ps.setString(2, auditLog.getAction());
+                ps.setString(3, auditLog.getResource());
+                ps.setString(4, auditLog.getResourceId());
+                ps.setString(5, auditLog.getDetails());
+                ps.setTimestamp(6, Timestamp.valueOf(auditLog.getTimestamp()));
+                ps.setString(7, auditLog.getIpAddress());
+                ps.setString(8, auditLog.getUserAgent());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return auditLogs.size();
+            }
+        });
+    }
+}
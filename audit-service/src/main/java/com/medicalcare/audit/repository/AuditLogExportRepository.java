@@ -0,0 +1,99 @@
+package com.medicalcare.audit.repository;
+
+import com.medicalcare.audit.entity.AuditLog;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Reads audit_logs for export through a server-side cursor.
+ * PostgreSQL only streams with a fetch size inside a transaction (autocommit off), so callers must
+ * run in one; rows are handed over one at a time and never collected.
+ * <p>
+ * Rows are exported in (timestamp, id) order. Ids come from pooled sequence blocks, so they do not follow commit
+ * order and cannot be used as a resume position. Rows newer than safety-lag are left for a later export.
+ * This lets buffered writes commit before the export passes their timestamp. Rows replayed from the write
+ * journal after a crash keep their original timestamp and can still land behind a position that was already
+ * exported.
+ */
+@Repository
+public class AuditLogExportRepository {
+    
+    private static final String COLUMNS = "id, user_id, action, resource, resource_id, details, timestamp, "
+            + "ip_address, user_agent";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Value("${audit.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    @Value("${audit.export.safety-lag:1m}")
+    private Duration safetyLag;
+    
+    private JdbcTemplate jdbcTemplate;
+    
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+    }
+    
+    /**
+     * Position of an exported row, to resume after it.
+     */
+    public Optional<Position> findPosition(long id) {
+        return jdbcTemplate.query("SELECT timestamp FROM audit_logs WHERE id = ?",
+                (rs, rowNum) -> new Position(rs.getTimestamp(1).toLocalDateTime(), id), id).stream().findFirst();
+    }
+    
+    /**
+     * Visits audit logs in (timestamp, id) order up to now - safety-lag, optionally resuming after a position and
+     * limited to a time range (which lets PostgreSQL skip partitions outside it).
+     */
+    public void forEach(Position after, LocalDateTime from, LocalDateTime to, Consumer<AuditLog> consumer) {
+        LocalDateTime settled = LocalDateTime.now().minus(safetyLag);
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                .append(" FROM audit_logs WHERE timestamp <= ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(to == null || to.isAfter(settled) ? settled : to));
+        if (after != null) {
+            sql.append(" AND (timestamp, id) > (?, ?)");
+            args.add(Timestamp.valueOf(after.timestamp()));
+            args.add(after.id());
+        }
+        if (from != null) {
+            sql.append(" AND timestamp >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        sql.append(" ORDER BY timestamp, id");
+        
+        jdbcTemplate.query(sql.toString(), rs -> {
+            AuditLog auditLog = new AuditLog();
+            auditLog.setId(rs.getLong(1));
+            auditLog.setUserId(rs.getString(2));
+            auditLog.setAction(rs.getString(3));
+            auditLog.setResource(rs.getString(4));
+            auditLog.setResourceId(rs.getString(5));
+            auditLog.setDetails(rs.getString(6));
+            auditLog.setTimestamp(rs.getTimestamp(7).toLocalDateTime());
+            auditLog.setIpAddress(rs.getString(8));
+            auditLog.setUserAgent(rs.getString(9));
+            consumer.accept(auditLog);
+        }, args.toArray());
+    }
+    
+    public record Position(LocalDateTime timestamp, long id) {
+    }
+}
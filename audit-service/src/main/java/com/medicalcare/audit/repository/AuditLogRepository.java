@@ -1,6 +1,7 @@
 package com.medicalcare.audit.repository;
 
 import com.medicalcare.audit.entity.AuditLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,6 +21,8 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     
     List<AuditLog> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
     
+    List<AuditLog> findAllByOrderByTimestampDesc(Pageable pageable);
+    
     @Query("SELECT a FROM AuditLog a WHERE a.userId = :userId AND a.timestamp BETWEEN :start AND :end ORDER BY a.timestamp DESC")
     List<AuditLog> findByUserIdAndTimestampBetween(@Param("userId") String userId, 
                                                    @Param("start") LocalDateTime start, 
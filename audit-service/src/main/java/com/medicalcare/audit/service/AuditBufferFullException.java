@@ -0,0 +1,11 @@
+package com.medicalcare.audit.service;
+
+/**
+ * Thrown when the audit write buffer stays full for longer than the configured offer timeout.
+ */
+public class AuditBufferFullException extends RuntimeException {
+
+    public AuditBufferFullException(String message) {
+        super(message);
+    }
+}
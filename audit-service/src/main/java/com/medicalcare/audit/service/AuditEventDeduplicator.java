@@ -0,0 +1,69 @@
+package com.medicalcare.audit.service;
+
+import com.medicalcare.audit.entity.AuditLog;
+import com.medicalcare.audit.repository.AuditEventKeyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drops audit events whose eventId has already been ingested.
+ * Producers deliver at least once, so a batch may be resent after a timeout even though it was stored;
+ * the ids are remembered for audit.dedup.retention, which must exceed the producers' retry window.
+ */
+@Component
+public class AuditEventDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditEventDeduplicator.class);
+
+    @Autowired
+    private AuditEventKeyRepository auditEventKeyRepository;
+
+    @Value("${audit.dedup.retention:7d}")
+    private Duration retention;
+
+    @PostConstruct
+    public void initialize() {
+        auditEventKeyRepository.createTableIfNotExists();
+    }
+
+    /**
+     * Returns the events of the batch that were not ingested before; eventIds and auditLogs are parallel
+     * lists and events without an eventId are always kept. Must be called in the transaction that inserts
+     * the returned events.
+     */
+    public List<AuditLog> filterNew(List<AuditLog> auditLogs, List<String> eventIds) {
+        List<String> keys = eventIds.stream().filter(id -> id != null).distinct().toList();
+        if (keys.isEmpty()) {
+            return auditLogs;
+        }
+        Set<String> claimed = auditEventKeyRepository.claim(keys);
+        List<AuditLog> fresh = new ArrayList<>(auditLogs.size());
+        for (int i = 0; i < auditLogs.size(); i++) {
+            String eventId = eventIds.get(i);
+            // remove() also drops repeats of the same id within the batch
+            if (eventId == null || claimed.remove(eventId)) {
+                fresh.add(auditLogs.get(i));
+            }
+        }
+        return fresh;
+    }
+
+    @Scheduled(cron = "${audit.dedup.prune-cron:0 45 3 * * *}")
+    public void prune() {
+        int deleted = auditEventKeyRepository.deleteReceivedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Pruned {} audit event ids older than {}", deleted, retention);
+        }
+    }
+}
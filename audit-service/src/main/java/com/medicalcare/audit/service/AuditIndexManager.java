@@ -0,0 +1,168 @@
+package com.medicalcare.audit.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates and verifies the composite indexes behind the AuditLogRepository finders.
+ * Each finder filters on its leading columns and sorts by timestamp DESC, so every lookup is an
+ * index range scan that returns rows already in order. Missing or invalid indexes are logged at startup
+ * and reported by the auditIndexes health indicator.
+ * <p>
+ * Missing indexes are built in the background without blocking writes. PostgreSQL cannot build an index
+ * on a partitioned parent concurrently, so the parent index is created ON ONLY (an instant catalog
+ * change that leaves it invalid), each partition is indexed with CREATE INDEX CONCURRENTLY and
+ * attached, and the parent index becomes valid once every partition is attached. Partitions created
+ * later inherit the index automatically.
+ */
+@Component("auditIndexes")
+@DependsOn("auditPartitionManager")
+public class AuditIndexManager implements HealthIndicator {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuditIndexManager.class);
+    
+    private static final String INDEX_PREFIX = "idx_audit_logs_";
+    
+    // Not declared on AuditLog, so that Hibernate schema update never builds them with a blocking CREATE INDEX
+    static final List<IndexDefinition> INDEXES = List.of(
+            new IndexDefinition("idx_audit_logs_user_timestamp", "user_id, timestamp DESC"),
+            new IndexDefinition("idx_audit_logs_resource_timestamp", "resource, resource_id, timestamp DESC"),
+            new IndexDefinition("idx_audit_logs_action_timestamp", "action, timestamp DESC"),
+            new IndexDefinition("idx_audit_logs_timestamp", "timestamp DESC"));
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${audit.indexes.create-missing:true}")
+    private boolean createMissing;
+    
+    private volatile List<String> missingIndexes = List.of();
+    
+    @PostConstruct
+    public void initialize() {
+        if (verify().isEmpty() || !createMissing) {
+            return;
+        }
+        Thread builder = new Thread(this::createMissing, "audit-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+    
+    private void createMissing() {
+        boolean partitioned = "p".equals(jdbcTemplate.queryForObject(
+                "SELECT (SELECT relkind FROM pg_class WHERE oid = to_regclass('audit_logs'))::text", String.class));
+        for (IndexDefinition index : INDEXES) {
+            if (!missingIndexes.contains(index.name())) {
+                continue;
+            }
+            try {
+                if (partitioned) {
+                    createOnPartitions(index);
+                } else {
+                    createConcurrently(index.name(), "audit_logs", index.columns());
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to create index {} on audit_logs", index.name(), e);
+            }
+        }
+        verify();
+    }
+    
+    private void createOnPartitions(IndexDefinition index) {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index.name()
+                + " ON ONLY audit_logs (" + index.columns() + ")");
+        List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass('audit_logs') "
+                + "AND NOT EXISTS (SELECT 1 FROM pg_index x JOIN pg_inherits xi ON xi.inhrelid = x.indexrelid "
+                + "WHERE x.indrelid = c.oid AND xi.inhparent = to_regclass(?))", String.class, index.name());
+        for (String partition : partitions) {
+            // A converted legacy table keeps its original index under the _legacy suffix
+            String partitionIndex = findValid(partition, index.name() + "_legacy");
+            if (partitionIndex == null) {
+                partitionIndex = partition + "_" + index.name().substring(INDEX_PREFIX.length());
+                createConcurrently(partitionIndex, partition, index.columns());
+            }
+            jdbcTemplate.execute("ALTER INDEX " + index.name() + " ATTACH PARTITION " + quote(partitionIndex));
+            log.info("Attached index {} on {} to {}", partitionIndex, partition, index.name());
+        }
+    }
+    
+    /**
+     * Builds an index without blocking writes. An invalid index left by an interrupted build is dropped
+     * and rebuilt, since CREATE INDEX IF NOT EXISTS would otherwise keep it.
+     */
+    private void createConcurrently(String name, String table, String columns) {
+        Boolean valid = jdbcTemplate.queryForObject("SELECT (SELECT x.indisvalid FROM pg_index x "
+                + "WHERE x.indexrelid = to_regclass(?))", Boolean.class, quote(name));
+        if (Boolean.TRUE.equals(valid)) {
+            return;
+        }
+        if (valid != null) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + quote(name));
+        }
+        log.info("Creating index {} on {} ({})", name, table, columns);
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + quote(name)
+                + " ON " + quote(table) + " (" + columns + ")");
+    }
+    
+    private String findValid(String table, String name) {
+        Boolean valid = jdbcTemplate.queryForObject("SELECT (SELECT x.indisvalid FROM pg_index x "
+                + "WHERE x.indexrelid = to_regclass(?) AND x.indrelid = to_regclass(?))", Boolean.class,
+                quote(name), quote(table));
+        return Boolean.TRUE.equals(valid) ? name : null;
+    }
+    
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+    
+    /**
+     * Re-reads the catalog and returns the names of indexes that are missing or invalid.
+     */
+    public List<String> verify() {
+        Map<String, Boolean> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT c.relname, x.indisvalid FROM pg_index x "
+                + "JOIN pg_class c ON c.oid = x.indexrelid WHERE x.indrelid = to_regclass('audit_logs')",
+                rs -> {
+                    existing.put(rs.getString(1), rs.getBoolean(2));
+                });
+        List<String> missing = new ArrayList<>();
+        for (IndexDefinition index : INDEXES) {
+            Boolean valid = existing.get(index.name());
+            if (valid == null) {
+                log.warn("Missing index {} on audit_logs ({})", index.name(), index.columns());
+                missing.add(index.name());
+            } else if (!valid) {
+                log.warn("Index {} on audit_logs is invalid; rebuild it with REINDEX", index.name());
+                missing.add(index.name());
+            }
+        }
+        missingIndexes = List.copyOf(missing);
+        return missingIndexes;
+    }
+    
+    @Override
+    public Health health() {
+        List<String> missing = missingIndexes;
+        Health.Builder builder = missing.isEmpty() ? Health.up() : Health.unknown();
+        return builder.withDetail("expected", INDEXES.size())
+                .withDetail("missing", missing)
+                .build();
+    }
+    
+    record IndexDefinition(String name, String columns) {
+    }
+}
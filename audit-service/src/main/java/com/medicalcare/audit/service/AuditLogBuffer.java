@@ -0,0 +1,318 @@
+package com.medicalcare.audit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalcare.audit.config.AuditWriteProperties;
+import com.medicalcare.audit.entity.AuditLog;
+import com.medicalcare.audit.repository.AuditLogBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process buffer in front of audit_logs.
+ * Callers enqueue and return immediately; a single writer thread drains the buffer and flushes
+ * up to batch-size rows per JDBC batch, waiting at most linger for a batch to fill. When the buffer
+ * is full, callers block for offer-timeout and are then rejected (back-pressure).
+ * A batch rejected by a constraint is retried row by row; rows that can never be stored are logged in full
+ * as dead letters instead of being retried.
+ */
+@Component
+@DependsOn("auditPartitionManager")
+public class AuditLogBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogBuffer.class);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+    @Autowired
+    private AuditWriteProperties properties;
+
+    @Autowired
+    private AuditLogBatchRepository auditLogBatchRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingAuditLog> queue;
+    private AuditLogJournal journal;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private DistributionSummary batchSizes;
+    private Counter writtenCounter;
+    private Counter rejectedCounter;
+    private Counter failedFlushCounter;
+    private Counter deadLetterCounter;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isAsync()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(properties.getCapacity());
+
+        Gauge.builder("audit.buffer.depth", queue, BlockingQueue::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("audit.buffer.flush")
+                .description("Latency of one batch insert into audit_logs")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("audit.buffer.batch.size")
+                .description("Rows per batch insert")
+                .register(meterRegistry);
+        writtenCounter = meterRegistry.counter("audit.buffer.written");
+        rejectedCounter = meterRegistry.counter("audit.buffer.rejected");
+        failedFlushCounter = meterRegistry.counter("audit.buffer.flush.failed");
+        deadLetterCounter = meterRegistry.counter("audit.buffer.dead");
+
+        AuditWriteProperties.Journal journalProperties = properties.getJournal();
+        if (journalProperties.isEnabled()) {
+            journal = new AuditLogJournal(Path.of(journalProperties.getDirectory()), objectMapper,
+                    journalProperties.getSegmentSize(), journalProperties.isFsync());
+            recoverJournal();
+        }
+
+        running = true;
+        writer = new Thread(this::runWriter, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (!queue.isEmpty()) {
+            log.error("Audit log writer stopped with {} events still buffered", queue.size());
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * Accepts an audit event for asynchronous writing.
+     * With the journal enabled, the event is on local disk before this returns.
+     *
+     * @throws AuditBufferFullException if the buffer stays full for offer-timeout
+     */
+    public void enqueue(AuditLog auditLog) {
+        if (!running) {
+            throw new AuditBufferFullException("Audit log buffer is not accepting writes");
+        }
+        long segment = -1;
+        if (journal != null) {
+            try {
+                segment = journal.append(auditLog);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal audit log", e);
+            }
+        }
+        boolean accepted;
+        try {
+            accepted = queue.offer(new PendingAuditLog(auditLog, segment),
+                    properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            if (journal != null) {
+                journal.release(segment, 1);
+            }
+            rejectedCounter.increment();
+            throw new AuditBufferFullException("Audit log buffer is full");
+        }
+    }
+
+    private void runWriter() {
+        int batchSize = properties.getBatchSize();
+        long lingerNanos = properties.getLinger().toNanos();
+        List<PendingAuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAuditLog first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingAuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Keep draining until stop() has been requested and the queue is empty
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in audit log writer, dead-lettering {} audit logs", batch.size(), e);
+                for (PendingAuditLog pending : batch) {
+                    deadLetter(pending.auditLog(), e);
+                }
+                release(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes one batch, retrying with backoff while the database is unavailable.
+     * The full buffer pushes back on callers in the meantime. Constraint violations are not retried:
+     * the batch is split into single rows and the offending rows are dead-lettered.
+     */
+    private void flush(List<PendingAuditLog> batch) throws InterruptedException {
+        List<AuditLog> auditLogs = new ArrayList<>(batch.size());
+        for (PendingAuditLog pending : batch) {
+            auditLogs.add(pending.auditLog());
+        }
+        int written = 0;
+        try {
+            if (!insertWithRetry(auditLogs)) {
+                return;
+            }
+            written = auditLogs.size();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Audit log batch violates a constraint, inserting {} rows one by one", auditLogs.size(), e);
+            for (AuditLog auditLog : auditLogs) {
+                try {
+                    if (!insertWithRetry(List.of(auditLog))) {
+                        return;
+                    }
+                    written++;
+                } catch (DataIntegrityViolationException rowFailure) {
+                    deadLetter(auditLog, rowFailure);
+                }
+            }
+        }
+        writtenCounter.increment(written);
+        batchSizes.record(auditLogs.size());
+        release(batch);
+    }
+
+    /**
+     * @return false if the writer is stopping and the rows were left to the journal
+     * @throws DataIntegrityViolationException if the rows can never be inserted as they are
+     */
+    private boolean insertWithRetry(List<AuditLog> auditLogs) throws InterruptedException {
+        long backoff = IDLE_POLL_MILLIS;
+        while (true) {
+            try {
+                flushTimer.record(() -> auditLogBatchRepository.insertAll(auditLogs));
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                failedFlushCounter.increment();
+                throw e;
+            } catch (DataAccessException e) {
+                failedFlushCounter.increment();
+                if (!running) {
+                    log.error("Dropping {} audit logs during shutdown{}", auditLogs.size(),
+                            journal != null ? "; they remain in the journal" : "", e);
+                    return false;
+                }
+                log.warn("Audit log batch insert failed, retrying in {} ms", backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Logs a row that cannot be stored with its full content, so it can be re-ingested by hand.
+     */
+    private void deadLetter(AuditLog auditLog, Exception cause) {
+        deadLetterCounter.increment();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(auditLog);
+        } catch (JsonProcessingException e) {
+            json = String.valueOf(auditLog);
+        }
+        log.error("Dead-lettered audit log {}: {}", json, cause.getMessage());
+    }
+
+    private void release(List<PendingAuditLog> batch) {
+        if (journal == null) {
+            return;
+        }
+        Map<Long, Integer> persistedPerSegment = new HashMap<>();
+        for (PendingAuditLog pending : batch) {
+            persistedPerSegment.merge(pending.segment(), 1, Integer::sum);
+        }
+        persistedPerSegment.forEach(journal::release);
+    }
+
+    /**
+     * Re-inserts events journaled by a previous run that may not have reached the database.
+     */
+    private void recoverJournal() throws IOException {
+        for (Path segment : journal.existingSegments()) {
+            List<AuditLog> auditLogs = journal.read(segment);
+            for (int from = 0; from < auditLogs.size(); from += properties.getBatchSize()) {
+                List<AuditLog> chunk = auditLogs.subList(from,
+                        Math.min(from + properties.getBatchSize(), auditLogs.size()));
+                try {
+                    auditLogBatchRepository.insertAll(chunk);
+                } catch (DataIntegrityViolationException e) {
+                    for (AuditLog auditLog : chunk) {
+                        try {
+                            auditLogBatchRepository.insertAll(List.of(auditLog));
+                        } catch (DataIntegrityViolationException rowFailure) {
+                            deadLetter(auditLog, rowFailure);
+                        }
+                    }
+                }
+            }
+            journal.delete(segment);
+            log.info("Recovered {} audit logs from journal segment {}", auditLogs.size(), segment.getFileName());
+        }
+    }
+
+    private record PendingAuditLog(AuditLog auditLog, long segment) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.medicalcare.audit.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalcare.audit.entity.AuditLog;
+import com.medicalcare.audit.repository.AuditLogExportRepository;
+import com.medicalcare.audit.repository.AuditLogExportRepository.Position;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Streams audit logs to an output stream as NDJSON or CSV with constant memory.
+ * Rows are written in (timestamp, id) order, so a dropped export resumes with after = the last id received
+ * (see {@link AuditLogExportRepository} for the rows a resumed export can miss).
+ */
+@Service
+public class AuditLogExporter {
+    
+    private static final String CSV_HEADER = "id,userId,action,resource,resourceId,details,timestamp,ipAddress,userAgent";
+    
+    @Autowired
+    private AuditLogExportRepository auditLogExportRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Resolves the resume position of an export.
+     *
+     * @throws IllegalArgumentException if no audit log has the given id
+     */
+    @Transactional(readOnly = true)
+    public Position resumeAfter(Long afterId) {
+        if (afterId == null) {
+            return null;
+        }
+        return auditLogExportRepository.findPosition(afterId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown audit log id: " + afterId));
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream outputStream, Position after, LocalDateTime from, LocalDateTime to)
+            throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        auditLogExportRepository.forEach(after, from, to, auditLog -> {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", auditLog.getId());
+                generator.writeStringField("userId", auditLog.getUserId());
+                generator.writeStringField("action", auditLog.getAction());
+                generator.writeStringField("resource", auditLog.getResource());
+                generator.writeStringField("resourceId", auditLog.getResourceId());
+                generator.writeStringField("details", auditLog.getDetails());
+                generator.writeStringField("timestamp", auditLog.getTimestamp().toString());
+                generator.writeStringField("ipAddress", auditLog.getIpAddress());
+                generator.writeStringField("userAgent", auditLog.getUserAgent());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+    }
+    
+    /**
+     * RFC 4180 CSV; the header row is only written for a fresh export, so resumed parts concatenate.
+     */
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream outputStream, Position after, LocalDateTime from, LocalDateTime to)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (after == null) {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+        auditLogExportRepository.forEach(after, from, to, auditLog -> {
+            try {
+                writer.write(String.valueOf(auditLog.getId()));
+                writeCsvField(writer, auditLog.getUserId());
+                writeCsvField(writer, auditLog.getAction());
+                writeCsvField(writer, auditLog.getResource());
+                writeCsvField(writer, auditLog.getResourceId());
+                writeCsvField(writer, auditLog.getDetails());
+                writeCsvField(writer, auditLog.getTimestamp().toString());
+                writeCsvField(writer, auditLog.getIpAddress());
+                writeCsvField(writer, auditLog.getUserAgent());
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+    
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
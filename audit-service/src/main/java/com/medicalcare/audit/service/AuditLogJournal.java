@@ -0,0 +1,169 @@
+package com.medicalcare.audit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicalcare.audit.entity.AuditLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only local journal for buffered audit events.
+ * Events are written one JSON object per line into numbered segment files. A segment is deleted
+ * once it is closed and every event in it has been persisted, so after a crash only unpersisted
+ * (or persisted-but-not-yet-released) events are left to replay - delivery is at-least-once.
+ */
+class AuditLogJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogJournal.class);
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    // Segment id -> events appended but not yet persisted
+    private final Map<Long, Integer> outstanding = new HashMap<>();
+
+    private FileChannel channel;
+    private long currentSegment;
+    private int currentCount;
+
+    AuditLogJournal(Path directory, ObjectMapper objectMapper, int segmentSize, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        List<Path> existing = existingSegments();
+        this.currentSegment = existing.isEmpty() ? 0 : segmentId(existing.get(existing.size() - 1));
+    }
+
+    /**
+     * Segment files left behind by a previous run, oldest first.
+     */
+    List<Path> existingSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * Reads every complete event from a segment; a torn last line from a crash is skipped.
+     */
+    List<AuditLog> read(Path segment) throws IOException {
+        List<AuditLog> auditLogs = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    auditLogs.add(objectMapper.readValue(line, AuditLog.class));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable audit journal entry in {}", segment.getFileName());
+                }
+            }
+        }
+        return auditLogs;
+    }
+
+    void delete(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    /**
+     * Appends an event and returns the id of the segment it was written to.
+     */
+    synchronized long append(AuditLog auditLog) throws IOException {
+        if (channel == null || currentCount >= segmentSize) {
+            rotate();
+        }
+        byte[] json = objectMapper.writeValueAsBytes(auditLog);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        currentCount++;
+        outstanding.merge(currentSegment, 1, Integer::sum);
+        return currentSegment;
+    }
+
+    /**
+     * Marks events of a segment as persisted.
+     */
+    synchronized void release(long segment, int count) {
+        int left = outstanding.merge(segment, -count, Integer::sum);
+        if (left <= 0 && segment != currentSegment) {
+            outstanding.remove(segment);
+            deleteQuietly(segment);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            if (outstanding.getOrDefault(currentSegment, 0) <= 0) {
+                outstanding.remove(currentSegment);
+                deleteQuietly(currentSegment);
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (channel != null) {
+            channel.close();
+            if (outstanding.getOrDefault(currentSegment, 0) <= 0) {
+                outstanding.remove(currentSegment);
+                deleteQuietly(currentSegment);
+            }
+        }
+        currentSegment++;
+        currentCount = 0;
+        channel = FileChannel.open(segmentPath(currentSegment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void deleteQuietly(long segment) {
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+        } catch (IOException e) {
+            log.warn("Could not delete audit journal segment {}", segment, e);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,296 @@
+package com.medicalcare.audit.service;
+
+import com.medicalcare.audit.config.AuditPartitionProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages PostgreSQL range partitions of audit_logs on the timestamp column.
+ * <p>
+ * On startup a plain audit_logs table (as created by Hibernate) is converted in place: the old table
+ * becomes the partition audit_logs_legacy covering everything up to the end of its newest interval,
+ * or is dropped when empty. Converting a table that holds rows is opt-in (migrate-existing), because
+ * the rename takes an ACCESS EXCLUSIVE lock; before it, a CHECK constraint bounding the timestamps is
+ * validated without blocking writes so that ATTACH PARTITION does not scan the table under that lock.
+ * Until the table is converted, partition maintenance is skipped. Partitions for the current and the
+ * next premake intervals are kept
+ * created, and a DEFAULT partition catches rows outside every range. Because every date-range query
+ * filters on timestamp, PostgreSQL prunes the partitions outside the requested range.
+ * <p>
+ * All DDL runs in one transaction under an advisory lock, so several instances can start at once.
+ */
+@Component
+public class AuditPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionManager.class);
+
+    private static final String TABLE = "audit_logs";
+    private static final String LEGACY_PARTITION = TABLE + "_legacy";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final String SEQUENCE = TABLE + "_id_seq";
+    private static final String LEGACY_BOUND = TABLE + "_legacy_bound";
+
+    // Arbitrary key for pg_advisory_xact_lock shared by all audit-service instances
+    private static final long LOCK_KEY = 0x4155444954L;
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern RANGE_BOUND = Pattern.compile(
+            "FROM \\((MINVALUE|'[^']+')\\) TO \\((MAXVALUE|'[^']+')\\)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AuditPartitionProperties properties;
+
+    @PostConstruct
+    public void initialize() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String relkind = relkind();
+        LocalDate legacyBound = null;
+        if (relkind != null && !"p".equals(relkind) && properties.isMigrateExisting() && hasRows()) {
+            legacyBound = boundLegacyRows();
+        }
+        LocalDate bound = legacyBound;
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            String current = relkind();
+            if (!"p".equals(current)) {
+                if (current != null && !properties.isMigrateExisting() && hasRows()) {
+                    log.warn("{} is not partitioned and holds rows; set audit.partitioning.migrate-existing=true"
+                            + " to convert it (takes an ACCESS EXCLUSIVE lock on {})", TABLE, TABLE);
+                    return;
+                }
+                convertToPartitioned(current != null, bound);
+            }
+            ensurePartitions(LocalDate.now());
+        });
+    }
+
+    /**
+     * Creates upcoming partitions and applies retention.
+     */
+    @Scheduled(cron = "${audit.partitioning.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            if (!"p".equals(relkind())) {
+                return;
+            }
+            LocalDate today = LocalDate.now();
+            ensurePartitions(today);
+            applyRetention(today);
+        });
+    }
+
+    private void lock() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+    }
+
+    private String relkind() {
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT relkind FROM pg_class WHERE oid = to_regclass(?))::text", String.class, TABLE);
+    }
+
+    private boolean hasRows() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + TABLE + ")", Boolean.class));
+    }
+
+    /**
+     * Adds CHECK (timestamp < bound) to the plain table and validates it in a separate transaction, which
+     * only takes SHARE UPDATE EXCLUSIVE and lets writes continue. ATTACH PARTITION then proves the
+     * partition bound from the constraint instead of scanning. The bound leaves one whole interval of
+     * headroom so that rows written while the constraint is being validated still satisfy it.
+     */
+    private LocalDate boundLegacyRows() {
+        AuditPartitionProperties.Interval interval = properties.getInterval();
+        LocalDate bound = transactionTemplate.execute(status -> {
+            lock();
+            LocalDateTime maxTimestamp = jdbcTemplate.queryForObject(
+                    "SELECT max(timestamp) FROM " + TABLE, LocalDateTime.class);
+            LocalDate newest = LocalDate.now();
+            if (maxTimestamp != null && maxTimestamp.toLocalDate().isAfter(newest)) {
+                newest = maxTimestamp.toLocalDate();
+            }
+            LocalDate upperBound = interval.plus(interval.start(newest), 2);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP CONSTRAINT IF EXISTS " + LEGACY_BOUND);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + LEGACY_BOUND
+                    + " CHECK (timestamp < '" + upperBound + "') NOT VALID");
+            return upperBound;
+        });
+        log.info("Validating timestamp < {} on {} before converting it to a partitioned table", bound, TABLE);
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " VALIDATE CONSTRAINT " + LEGACY_BOUND);
+        });
+        return bound;
+    }
+
+    private void convertToPartitioned(boolean tableExists, LocalDate legacyBound) {
+        AuditPartitionProperties.Interval interval = properties.getInterval();
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE);
+
+        if (!tableExists) {
+            jdbcTemplate.execute("CREATE TABLE " + TABLE + " ("
+                    + "id bigint NOT NULL DEFAULT nextval('" + SEQUENCE + "'), "
+                    + "user_id varchar(255) NOT NULL, "
+                    + "action varchar(255) NOT NULL, "
+                    + "resource varchar(255) NOT NULL, "
+                    + "resource_id varchar(255) NOT NULL, "
+                    + "details text, "
+                    + "timestamp timestamp(6) NOT NULL, "
+                    + "ip_address varchar(255) NOT NULL, "
+                    + "user_agent varchar(255) NOT NULL, "
+                    + "PRIMARY KEY (id, timestamp)"
+                    + ") PARTITION BY RANGE (timestamp)");
+        } else {
+            log.info("Converting {} to a range-partitioned table", TABLE);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + LEGACY_PARTITION);
+            // Index names are schema-wide; free them up for the partitioned parent
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ?",
+                    String.class, LEGACY_PARTITION);
+            for (String index : indexes) {
+                jdbcTemplate.execute("ALTER INDEX " + quote(index) + " RENAME TO "
+                        + quote(truncate(index + "_legacy")));
+            }
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE " + LEGACY_PARTITION + " INCLUDING DEFAULTS)"
+                    + " PARTITION BY RANGE (timestamp)");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ALTER COLUMN id SET DEFAULT nextval('" + SEQUENCE + "')");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD PRIMARY KEY (id, timestamp)");
+
+            Long maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM " + LEGACY_PARTITION, Long.class);
+            LocalDateTime maxTimestamp = jdbcTemplate.queryForObject(
+                    "SELECT max(timestamp) FROM " + LEGACY_PARTITION, LocalDateTime.class);
+            if (maxTimestamp == null) {
+                jdbcTemplate.execute("DROP TABLE " + LEGACY_PARTITION);
+            } else {
+                // Never move the sequence backwards: Hibernate may already hold a block above maxId
+                jdbcTemplate.queryForObject("SELECT setval(?::regclass, greatest(?, last_value))::text FROM "
+                        + SEQUENCE, String.class, SEQUENCE, maxId);
+                // Without a validated bound (the table was empty when checked) ATTACH scans the few rows
+                LocalDate upperBound = legacyBound != null ? legacyBound
+                        : interval.plus(interval.start(maxTimestamp.toLocalDate()), 1);
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + LEGACY_PARTITION
+                        + " FOR VALUES FROM (MINVALUE) TO ('" + upperBound + "')");
+                // The partition bound now enforces the same range
+                jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " DROP CONSTRAINT IF EXISTS "
+                        + LEGACY_BOUND);
+            }
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " OWNED BY " + TABLE + ".id");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+    }
+
+    private void ensurePartitions(LocalDate today) {
+        AuditPartitionProperties.Interval interval = properties.getInterval();
+        List<PartitionRange> existing = partitions();
+        LocalDate start = interval.start(today);
+        for (int i = 0; i <= properties.getPremake(); i++) {
+            LocalDate from = interval.plus(start, i);
+            LocalDate to = interval.plus(start, i + 1);
+            if (existing.stream().anyMatch(range -> range.overlaps(from.atStartOfDay(), to.atStartOfDay()))) {
+                continue;
+            }
+            // Creating a range fails if the DEFAULT partition already holds rows for it
+            Boolean stray = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                    + " WHERE timestamp >= ? AND timestamp < ?)", Boolean.class,
+                    from.atStartOfDay(), to.atStartOfDay());
+            if (Boolean.TRUE.equals(stray)) {
+                log.warn("Not creating audit_logs partition for {}: rows already in {}", from, DEFAULT_PARTITION);
+                continue;
+            }
+            String name = TABLE + "_p" + from.format(PARTITION_SUFFIX);
+            jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            log.info("Created audit_logs partition {} [{}, {})", name, from, to);
+        }
+    }
+
+    private void applyRetention(LocalDate today) {
+        if (properties.getRetention() <= 0) {
+            return;
+        }
+        AuditPartitionProperties.Interval interval = properties.getInterval();
+        LocalDateTime cutoff = interval.plus(interval.start(today), -properties.getRetention()).atStartOfDay();
+        for (PartitionRange range : partitions()) {
+            if (range.to() == null || range.to().isAfter(cutoff)) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + quote(range.name()));
+            if (properties.getRetentionAction() == AuditPartitionProperties.RetentionAction.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + quote(range.name()));
+                log.info("Dropped audit_logs partition {}", range.name());
+            } else {
+                String schema = quote(properties.getArchiveSchema());
+                jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+                jdbcTemplate.execute("ALTER TABLE " + quote(range.name()) + " SET SCHEMA " + schema);
+                log.info("Archived audit_logs partition {} to schema {}", range.name(), properties.getArchiveSchema());
+            }
+        }
+    }
+
+    /**
+     * Range partitions of audit_logs; the DEFAULT partition is not included.
+     */
+    private List<PartitionRange> partitions() {
+        List<PartitionRange> ranges = new ArrayList<>();
+        jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)", rs -> {
+                    Matcher matcher = RANGE_BOUND.matcher(rs.getString(2));
+                    if (matcher.find()) {
+                        ranges.add(new PartitionRange(rs.getString(1),
+                                parseBound(matcher.group(1)), parseBound(matcher.group(2))));
+                    }
+                }, TABLE);
+        return ranges;
+    }
+
+    // 'yyyy-MM-dd HH:mm:ss' literal, or null for MINVALUE/MAXVALUE
+    private static LocalDateTime parseBound(String bound) {
+        if (!bound.startsWith("'")) {
+            return null;
+        }
+        return LocalDateTime.parse(bound.substring(1, bound.length() - 1).replace(' ', 'T'));
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    // PostgreSQL truncates identifiers to 63 bytes
+    private static String truncate(String identifier) {
+        return identifier.length() > 63 ? identifier.substring(0, 63) : identifier;
+    }
+
+    private record PartitionRange(String name, LocalDateTime from, LocalDateTime to) {
+
+        boolean overlaps(LocalDateTime otherFrom, LocalDateTime otherTo) {
+            return (from == null || from.isBefore(otherTo)) && (to == null || to.isAfter(otherFrom));
+        }
+    }
+}
@@ -1,28 +1,139 @@
 package com.medicalcare.audit.service;
 
+import com.medicalcare.audit.config.AuditWriteProperties;
+import com.medicalcare.audit.dto.AuditEventRequest;
+import com.medicalcare.audit.dto.BulkIngestResult;
 import com.medicalcare.audit.entity.AuditLog;
+import com.medicalcare.audit.repository.AuditLogBatchRepository;
 import com.medicalcare.audit.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
 public class AuditService {
     
+    // Length of the varchar(255) columns of audit_logs
+    private static final int MAX_COLUMN_LENGTH = 255;
+    
     @Autowired
     private AuditLogRepository auditLogRepository;
     
+    @Autowired
+    private AuditLogBuffer auditLogBuffer;
+    
+    @Autowired
+    private AuditLogBatchRepository auditLogBatchRepository;
+    
+    @Autowired
+    private AuditWriteProperties writeProperties;
+    
+    @Autowired
+    private AuditEventDeduplicator auditEventDeduplicator;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    /**
+     * Records an audit event. With async writes enabled the event is buffered and written in a
+     * later batch, so the returned AuditLog has no id yet.
+     *
+     * @throws IllegalArgumentException if a required field is missing or too long for its column
+     */
     public AuditLog createAuditLog(String userId, String action, String resource, String resourceId, 
                                   String details, String ipAddress, String userAgent) {
         AuditLog auditLog = new AuditLog(userId, action, resource, resourceId, ipAddress, userAgent);
         if (details != null) {
             auditLog.setDetails(details);
         }
+        // Rejected here rather than by the database: a buffered row has already been acknowledged
+        String error = validate(auditLog);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        if (auditLogBuffer.isEnabled()) {
+            auditLogBuffer.enqueue(auditLog);
+            return auditLog;
+        }
         return auditLogRepository.save(auditLog);
     }
     
+    public boolean isAsyncWriteEnabled() {
+        return auditLogBuffer.isEnabled();
+    }
+    
+    /**
+     * Stores a stream of audit events with batched inserts, consuming the iterator lazily so the
+     * request body is never held in memory as a whole. Invalid events are skipped and reported;
+     * an event that cannot be parsed stops ingestion after the events before it are stored.
+     * Events whose eventId was already stored are skipped and counted as duplicates.
+     */
+    public BulkIngestResult bulkCreateAuditLogs(Iterator<AuditEventRequest> events, String ipAddress,
+                                               String userAgent) {
+        BulkIngestResult result = new BulkIngestResult();
+        int batchSize = writeProperties.getBatchSize();
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        List<String> eventIds = new ArrayList<>(batchSize);
+        long index = 0;
+        while (true) {
+            AuditEventRequest event;
+            try {
+                if (!events.hasNext()) {
+                    break;
+                }
+                event = events.next();
+            } catch (RuntimeException e) {
+                result.abort(index, "Malformed event: " + e.getMessage());
+                break;
+            }
+            String error = validate(event);
+            AuditLog auditLog = null;
+            if (error == null) {
+                auditLog = toAuditLog(event, ipAddress, userAgent);
+                error = validate(auditLog);
+            }
+            if (error != null) {
+                result.reject(index, error);
+            } else {
+                batch.add(auditLog);
+                eventIds.add(isBlank(event.getEventId()) ? null : event.getEventId());
+                if (batch.size() >= batchSize) {
+                    insertBatch(batch, eventIds, result);
+                }
+            }
+            index++;
+        }
+        insertBatch(batch, eventIds, result);
+        return result;
+    }
+    
+    private void insertBatch(List<AuditLog> batch, List<String> eventIds, BulkIngestResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (eventIds.stream().allMatch(id -> id == null)) {
+            auditLogBatchRepository.insertAll(batch);
+            result.addAccepted(batch.size());
+        } else {
+            // Claiming the ids and inserting the rows commit together, so a failed insert can be retried
+            List<AuditLog> fresh = transactionTemplate.execute(status -> {
+                List<AuditLog> rows = auditEventDeduplicator.filterNew(batch, eventIds);
+                auditLogBatchRepository.insertAll(rows);
+                return rows;
+            });
+            result.addAccepted(fresh.size());
+            result.addDuplicates(batch.size() - fresh.size());
+        }
+        batch.clear();
+        eventIds.clear();
+    }
+    
     public List<AuditLog> getAuditLogsByUserId(String userId) {
         return auditLogRepository.findByUserIdOrderByTimestampDesc(userId);
     }
@@ -48,7 +159,56 @@ public class AuditService {
         return auditLogRepository.findByResourceAndResourceIdAndTimestampBetween(resource, resourceId, start, end);
     }
     
-    public List<AuditLog> getAllAuditLogs() {
-        return auditLogRepository.findAll();
+    /**
+     * Most recent audit logs; full exports go through AuditLogExporter.
+     */
+    public List<AuditLog> getRecentAuditLogs(int limit) {
+        return auditLogRepository.findAllByOrderByTimestampDesc(PageRequest.of(0, limit));
+    }
+    
+    private String validate(AuditEventRequest event) {
+        if (event == null) {
+            return "Event must be an object";
+        }
+        if (event.getEventId() != null && event.getEventId().length() > 64) {
+            return "eventId must be at most 64 characters";
+        }
+        return null;
+    }
+    
+    /**
+     * Checks the NOT NULL and varchar(255) columns of audit_logs, after ipAddress and userAgent
+     * have fallen back to the request's values.
+     */
+    private String validate(AuditLog auditLog) {
+        String[][] columns = {
+                { "userId", auditLog.getUserId() },
+                { "action", auditLog.getAction() },
+                { "resource", auditLog.getResource() },
+                { "resourceId", auditLog.getResourceId() },
+                { "ipAddress", auditLog.getIpAddress() },
+                { "userAgent", auditLog.getUserAgent() } };
+        for (String[] column : columns) {
+            if (isBlank(column[1])) {
+                return column[0] + " is required";
+            }
+            if (column[1].length() > MAX_COLUMN_LENGTH) {
+                return column[0] + " must be at most " + MAX_COLUMN_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+    
+    private AuditLog toAuditLog(AuditEventRequest event, String ipAddress, String userAgent) {
+        AuditLog auditLog = new AuditLog(event.getUserId(), event.getAction(), event.getResource(),
+                event.getResourceId(),
+                isBlank(event.getIpAddress()) ? ipAddress : event.getIpAddress(),
+                isBlank(event.getUserAgent()) ? userAgent : event.getUserAgent());
+        auditLog.setDetails(event.getDetails());
+        return auditLog;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 }
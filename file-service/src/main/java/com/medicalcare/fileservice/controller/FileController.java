@@ -1,21 +1,129 @@
 package com.medicalcare.fileservice.controller;
 
 import com.medicalcare.fileservice.domain.FileRecord;
+import com.medicalcare.fileservice.dto.FileSummary;
 import com.medicalcare.fileservice.service.FileService;
+import com.medicalcare.fileservice.service.FileStorage;
+import com.medicalcare.fileservice.service.FileTooLargeException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/files")
 public class FileController {
+    // Tomcat の sendfile（カーネル内でファイルからソケットへコピー）の要求属性
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private FileStorage fileStorage;
+
     @GetMapping
-    public ResponseEntity<List<FileRecord>> getAllFiles() {
-        return ResponseEntity.ok(fileService.findAll());
+    public ResponseEntity<List<FileSummary>> getAllFiles() {
+        return ResponseEntity.ok(fileService.findAllSummaries());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<FileRecord> getFileById(@PathVariable Long id) {
+        return fileService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * アップロード（リクエストボディがファイルの内容、Content-Type がファイルの種類）
+     * multipart として解析しないため、内容はメモリや一時ファイルを経由せずに保存先へ書き込まれる
+     */
+    @PostMapping
+    public ResponseEntity<?> uploadFile(@RequestParam String filename, HttpServletRequest request)
+            throws IOException {
+        String contentType = Optional.ofNullable(request.getContentType())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        if (contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        try {
+            FileRecord fileRecord = fileService.upload(filename, contentType, request.getInputStream());
+            return ResponseEntity.created(URI.create("/api/files/" + fileRecord.getId())).body(fileRecord);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (FileTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        }
+    }
+
+    /**
+     * ダウンロード（Range は1範囲のみ対応、複数範囲の場合は全体を返す。範囲の解釈は {@link FileRange}）
+     * 内容はヒープを経由せず、可能な場合は sendfile、それ以外は FileChannel から転送する
+     */
+    @GetMapping("/{id}/content")
+    public void downloadFile(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<FileRecord> found = fileService.findById(id);
+        if (found.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        FileRecord fileRecord = found.get();
+        // サイズが未登録の場合は保存先のファイルから取得する
+        long length = fileRecord.getSize() != null ? fileRecord.getSize()
+                : fileStorage.size(fileRecord.getStoragePath());
+        String etag = fileRecord.getSha256() != null ? "\"" + fileRecord.getSha256() + "\"" : null;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        response.setContentType(fileRecord.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileRecord.getFilename(), StandardCharsets.UTF_8).build().toString());
+
+        FileRange range = FileRange.resolve(request.getHeader(HttpHeaders.RANGE),
+                request.getHeader(HttpHeaders.IF_RANGE), etag, length);
+        if (range.kind() == FileRange.Kind.UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setContentLengthLong(0);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range.kind() == FileRange.Kind.PARTIAL) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.start() + "-" + range.end() + "/" + length);
+        }
+        long start = range.start();
+        long end = range.end();
+        long count = range.count();
+        response.setContentLengthLong(count);
+        if (count <= 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, new File(fileRecord.getStoragePath()).getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else {
+            fileStorage.transfer(fileRecord.getStoragePath(), start, count,
+                    Channels.newChannel(response.getOutputStream()));
+        }
     }
     // 他のエンドポイント省略
-}
\ No newline at end of file
+}
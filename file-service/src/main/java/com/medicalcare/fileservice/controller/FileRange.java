@@ -0,0 +1,66 @@
+package com.medicalcare.fileservice.controller;
+
+import org.springframework.http.HttpRange;
+
+import java.util.List;
+
+/**
+ * ダウンロードで返す範囲（Range・If-Range の解釈）
+ * 1範囲のみ部分応答にする。複数範囲・構文が不正な Range・一致しない If-Range は無視して全体を返す
+ *
+ * @param start 先頭のバイト位置
+ * @param end   末尾のバイト位置（含む）
+ */
+public record FileRange(Kind kind, long start, long end) {
+
+    public enum Kind {
+        // 200（全体）
+        FULL,
+        // 206（部分）
+        PARTIAL,
+        // 416（先頭がファイルの長さ以上）
+        UNSATISFIABLE
+    }
+
+    /**
+     * @param range   Range ヘッダー（null 可）
+     * @param ifRange If-Range ヘッダー（null 可。ETag と完全に一致する場合のみ Range を使う）
+     * @param etag    現在の ETag（null 可）
+     * @param length  ファイルの長さ
+     */
+    public static FileRange resolve(String range, String ifRange, String etag, long length) {
+        FileRange full = new FileRange(Kind.FULL, 0, length - 1);
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            return full;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return full;
+        }
+        if (ranges.size() != 1) {
+            return full;
+        }
+        // HttpRange は先頭がファイルの長さ以上でも例外にならない（bytes=1000- や bytes=-0）
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+        } catch (IllegalArgumentException e) {
+            return new FileRange(Kind.UNSATISFIABLE, 0, -1);
+        }
+        if (start >= length || end < start) {
+            return new FileRange(Kind.UNSATISFIABLE, 0, -1);
+        }
+        return new FileRange(Kind.PARTIAL, start, end);
+    }
+
+    /**
+     * 返すバイト数
+     */
+    public long count() {
+        return end - start + 1;
+    }
+}
@@ -1,5 +1,6 @@
 package com.medicalcare.fileservice.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -7,7 +8,8 @@ import java.time.LocalDateTime;
 @Table(name = "files")
 public class FileRecord {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "files_id_seq")
+    @SequenceGenerator(name = "files_id_seq", sequenceName = "files_id_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     private String filename;
@@ -15,13 +17,71 @@ public class FileRecord {
     private String contentType;
     @Column(nullable = false)
     private Long size;
+    @JsonIgnore
     @Column(nullable = false)
     private String storagePath;
     @Column(nullable = false)
     private LocalDateTime uploadedAt;
+    // 内容の SHA-256（16進）
+    @Column(length = 64)
+    private String sha256;
 
     public FileRecord() {
         this.uploadedAt = LocalDateTime.now();
     }
-    // getter/setter省略
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    public LocalDateTime getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public void setUploadedAt(LocalDateTime uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.medicalcare.fileservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * ファイルサマリー
+ * 一覧表示用に、保存先パスを除いたメタデータだけを保持する
+ */
+public class FileSummary {
+
+    private final Long id;
+    private final String filename;
+    private final String contentType;
+    private final Long size;
+    private final LocalDateTime uploadedAt;
+
+    public FileSummary(Long id, String filename, String contentType, Long size, LocalDateTime uploadedAt) {
+        this.id = id;
+        this.filename = filename;
+        this.contentType = contentType;
+        this.size = size;
+        this.uploadedAt = uploadedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public LocalDateTime getUploadedAt() {
+        return uploadedAt;
+    }
+}
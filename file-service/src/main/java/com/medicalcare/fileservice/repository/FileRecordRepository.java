@@ -1,9 +1,17 @@
 package com.medicalcare.fileservice.repository;
 
 import com.medicalcare.fileservice.domain.FileRecord;
+import com.medicalcare.fileservice.dto.FileSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface FileRecordRepository extends JpaRepository<FileRecord, Long> {
+    // 一覧用（保存先パスは読み込まない）
+    @Query("SELECT new com.medicalcare.fileservice.dto.FileSummary("
+            + "f.id, f.filename, f.contentType, f.size, f.uploadedAt) FROM FileRecord f")
+    List<FileSummary> findAllSummaries();
 }
\ No newline at end of file
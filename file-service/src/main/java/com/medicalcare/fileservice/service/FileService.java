@@ -1,18 +1,65 @@
 package com.medicalcare.fileservice.service;
 
 import com.medicalcare.fileservice.domain.FileRecord;
+import com.medicalcare.fileservice.dto.FileSummary;
 import com.medicalcare.fileservice.repository.FileRecordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 @Service
 public class FileService {
     @Autowired
     private FileRecordRepository fileRecordRepository;
 
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Value("${file.upload.allowed-types}")
+    private List<String> allowedTypes;
+
     public List<FileRecord> findAll() {
         return fileRecordRepository.findAll();
     }
+
+    public List<FileSummary> findAllSummaries() {
+        return fileRecordRepository.findAllSummaries();
+    }
+
+    public Optional<FileRecord> findById(Long id) {
+        return fileRecordRepository.findById(id);
+    }
+
+    /**
+     * アップロードされた内容を保存先へ書き込み、ファイルを登録する
+     *
+     * @throws IllegalArgumentException 許可されていない拡張子の場合
+     * @throws FileTooLargeException file.upload.max-size を超えた場合
+     */
+    public FileRecord upload(String filename, String contentType, InputStream in) throws IOException {
+        int dot = filename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (!allowedTypes.contains(extension)) {
+            throw new IllegalArgumentException("File type not allowed: " + filename);
+        }
+        FileStorage.Stored stored = fileStorage.write(in);
+        FileRecord fileRecord = new FileRecord();
+        fileRecord.setFilename(filename);
+        fileRecord.setContentType(contentType);
+        fileRecord.setSize(stored.size());
+        fileRecord.setSha256(stored.sha256());
+        fileRecord.setStoragePath(stored.storagePath());
+        try {
+            return fileRecordRepository.save(fileRecord);
+        } catch (RuntimeException e) {
+            fileStorage.delete(stored.storagePath());
+            throw e;
+        }
+    }
     // 他のCRUDメソッド省略
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package com.medicalcare.fileservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * ファイルの保存先（file.upload.path）への読み書き
+ * 受信した内容はヒープに溜めずにダイレクトバッファー経由で FileChannel へ書き込み、同時にサイズと SHA-256 を計算する
+ */
+@Component
+public class FileStorage {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    @Value("${file.upload.path}")
+    private Path uploadPath;
+
+    @Value("${file.upload.max-size}")
+    private long maxSize;
+
+    @Value("${file.upload.buffer-size:65536}")
+    private int bufferSize;
+
+    /**
+     * 入力を最後まで保存する（書き込み中は .part に書き、完了後に名前を変更する）
+     *
+     * @throws FileTooLargeException file.upload.max-size を超えた場合（書き込み途中のファイルは削除する）
+     */
+    public Stored write(InputStream in) throws IOException {
+        Files.createDirectories(uploadPath);
+        String name = UUID.randomUUID().toString();
+        Path partial = uploadPath.resolve(name + PARTIAL_SUFFIX);
+        MessageDigest digest = sha256();
+        long size = 0;
+        try {
+            ReadableByteChannel source = Channels.newChannel(in);
+            try (FileChannel target = FileChannel.open(partial, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+                while (source.read(buffer) >= 0) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxSize) {
+                        throw new FileTooLargeException("File exceeds " + maxSize + " bytes");
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                target.force(false);
+            }
+            Path stored = uploadPath.resolve(name);
+            Files.move(partial, stored, StandardCopyOption.ATOMIC_MOVE);
+            return new Stored(stored.toString(), size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+    }
+
+    /**
+     * 保存済みファイルの範囲を出力へ転送する（コンテナの sendfile を使えない場合に使う）
+     */
+    public void transfer(String storagePath, long position, long count, WritableByteChannel out) throws IOException {
+        try (FileChannel source = FileChannel.open(Path.of(storagePath), StandardOpenOption.READ)) {
+            long end = position + count;
+            while (position < end) {
+                long transferred = source.transferTo(position, end - position, out);
+                if (transferred <= 0) {
+                    throw new IOException("Unexpected end of file: " + storagePath);
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    public long size(String storagePath) throws IOException {
+        return Files.size(Path.of(storagePath));
+    }
+
+    public void delete(String storagePath) throws IOException {
+        Files.deleteIfExists(Path.of(storagePath));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 保存結果
+     */
+    public record Stored(String storagePath, long size, String sha256) {
+    }
+}
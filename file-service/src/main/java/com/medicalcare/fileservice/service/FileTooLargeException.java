@@ -0,0 +1,11 @@
+package com.medicalcare.fileservice.service;
+
+/**
+ * アップロードされたファイルが file.upload.max-size を超えた
+ */
+public class FileTooLargeException extends RuntimeException {
+
+    public FileTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,86 @@
+package com.medicalcare.fileservice.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileRangeTest {
+
+    private static final String ETAG = "\"abc\"";
+
+    @Test
+    void noRangeReturnsWholeFile() {
+        assertThat(FileRange.resolve(null, null, ETAG, 500))
+                .isEqualTo(new FileRange(FileRange.Kind.FULL, 0, 499));
+    }
+
+    @Test
+    void singleRangeIsPartial() {
+        FileRange range = FileRange.resolve("bytes=100-199", null, ETAG, 500);
+
+        assertThat(range).isEqualTo(new FileRange(FileRange.Kind.PARTIAL, 100, 199));
+        assertThat(range.count()).isEqualTo(100);
+    }
+
+    @Test
+    void openEndedAndOverlongRangesStopAtLastByte() {
+        assertThat(FileRange.resolve("bytes=400-", null, ETAG, 500))
+                .isEqualTo(new FileRange(FileRange.Kind.PARTIAL, 400, 499));
+        assertThat(FileRange.resolve("bytes=400-9999", null, ETAG, 500))
+                .isEqualTo(new FileRange(FileRange.Kind.PARTIAL, 400, 499));
+    }
+
+    @Test
+    void suffixRangeReturnsLastBytes() {
+        assertThat(FileRange.resolve("bytes=-100", null, ETAG, 500))
+                .isEqualTo(new FileRange(FileRange.Kind.PARTIAL, 400, 499));
+        assertThat(FileRange.resolve("bytes=-1000", null, ETAG, 500))
+                .isEqualTo(new FileRange(FileRange.Kind.PARTIAL, 0, 499));
+    }
+
+    @Test
+    void startAtOrBeyondLengthIsUnsatisfiable() {
+        assertThat(FileRange.resolve("bytes=1000-", null, ETAG, 500).kind())
+                .isEqualTo(FileRange.Kind.UNSATISFIABLE);
+        assertThat(FileRange.resolve("bytes=500-600", null, ETAG, 500).kind())
+                .isEqualTo(FileRange.Kind.UNSATISFIABLE);
+        assertThat(FileRange.resolve("bytes=-0", null, ETAG, 500).kind())
+                .isEqualTo(FileRange.Kind.UNSATISFIABLE);
+    }
+
+    @Test
+    void anyRangeOnEmptyFileIsUnsatisfiable() {
+        assertThat(FileRange.resolve("bytes=0-", null, ETAG, 0).kind()).isEqualTo(FileRange.Kind.UNSATISFIABLE);
+        assertThat(FileRange.resolve("bytes=-10", null, ETAG, 0).kind()).isEqualTo(FileRange.Kind.UNSATISFIABLE);
+    }
+
+    @Test
+    void emptyFileWithoutRangeHasNoBytes() {
+        assertThat(FileRange.resolve(null, null, ETAG, 0).count()).isZero();
+    }
+
+    @Test
+    void multipleOrMalformedRangesReturnWholeFile() {
+        assertThat(FileRange.resolve("bytes=0-10,20-30", null, ETAG, 500).kind()).isEqualTo(FileRange.Kind.FULL);
+        assertThat(FileRange.resolve("bytes=20-10", null, ETAG, 500).kind()).isEqualTo(FileRange.Kind.FULL);
+        assertThat(FileRange.resolve("items=0-10", null, ETAG, 500).kind()).isEqualTo(FileRange.Kind.FULL);
+    }
+
+    @Test
+    void matchingIfRangeKeepsRange() {
+        assertThat(FileRange.resolve("bytes=0-9", ETAG, ETAG, 500))
+                .isEqualTo(new FileRange(FileRange.Kind.PARTIAL, 0, 9));
+    }
+
+    @Test
+    void staleIfRangeReturnsWholeFile() {
+        assertThat(FileRange.resolve("bytes=0-9", "\"other\"", ETAG, 500).kind()).isEqualTo(FileRange.Kind.FULL);
+        assertThat(FileRange.resolve("bytes=0-9", "Wed, 21 Oct 2015 07:28:00 GMT", ETAG, 500).kind())
+                .isEqualTo(FileRange.Kind.FULL);
+    }
+
+    @Test
+    void ifRangeWithoutEtagReturnsWholeFile() {
+        assertThat(FileRange.resolve("bytes=0-9", ETAG, null, 500).kind()).isEqualTo(FileRange.Kind.FULL);
+    }
+}
@@ -3,6 +3,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.4"
     kotlin("jvm") version "1.9.20"
     kotlin("plugin.spring") version "1.9.20"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.medicalcare"
@@ -40,6 +41,10 @@ dependencyManagement {
     }
 }
 
+jmh {
+    profilers.add("gc")
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
 } 
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.medicalcare.notificationservice.repository;
+
+import com.medicalcare.notificationservice.domain.Notification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一斉配信のベンチマーク（100万人への通知作成）
+ * 1行ずつの INSERT を JDBC バッチで送る方式（saveAll 相当）と、チャンクごとの INSERT ... SELECT unnest を比較する。
+ * 1回の実行で recipients 件を作成する時間を SingleShotTime で計測する。宛先の取得（ユーザーサービスへの問い合わせ）は含めない
+ * <p>
+ * PostgreSQL が必要（スキーマ fanout_benchmark に notifications を作成し、反復ごとに TRUNCATE する）。
+ * 実行: ./gradlew jmh -Pjmh.includes=NotificationFanOutBenchmark -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/medicalcare_notifications
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class NotificationFanOutBenchmark {
+
+    private static final String SCHEMA = "fanout_benchmark";
+
+    // saveAll と同じ1行ずつの INSERT（hibernate.jdbc.batch_size と同じ50行ごとに送信）
+    private static final String INSERT_ROW_SQL = "INSERT INTO notifications "
+            + "(id, user_id, title, message, type, status, created_at, updated_at) "
+            + "VALUES (nextval('notifications_id_seq'), ?, ?, ?, ?, 'UNREAD', ?, ?)";
+
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    @Param({ "1000000" })
+    private int recipients;
+
+    @Param({ "1000", "5000", "20000" })
+    private int chunkSize;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private NotificationBatchRepository notificationBatchRepository;
+    private List<List<Long>> chunks;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty("benchmark.jdbc-url",
+                "jdbc:postgresql://localhost:5432/medicalcare_notifications");
+        dataSource = new SingleConnectionDataSource(url + (url.contains("?") ? "&" : "?")
+                + "reWriteBatchedInserts=true&currentSchema=" + SCHEMA,
+                System.getProperty("benchmark.jdbc-user", "postgres"),
+                System.getProperty("benchmark.jdbc-password", "password"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS notifications_id_seq INCREMENT BY 50");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notifications (id bigint PRIMARY KEY, "
+                + "user_id bigint NOT NULL, title varchar(255) NOT NULL, message text NOT NULL, "
+                + "type varchar(255) NOT NULL, status varchar(255) NOT NULL, read_at timestamp, "
+                + "event_id varchar(64) UNIQUE, created_at timestamp NOT NULL, updated_at timestamp NOT NULL)");
+        notificationBatchRepository = new NotificationBatchRepository();
+        Field field = ReflectionUtils.findField(NotificationBatchRepository.class, "jdbcTemplate");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, notificationBatchRepository, jdbcTemplate);
+        chunks = new ArrayList<>();
+        for (long start = 1; start <= recipients; start += chunkSize) {
+            List<Long> chunk = new ArrayList<>(chunkSize);
+            for (long userId = start; userId < start + chunkSize && userId <= recipients; userId++) {
+                chunk.add(userId);
+            }
+            chunks.add(chunk);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE notifications");
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public long perRowBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        long inserted = 0;
+        for (List<Long> chunk : chunks) {
+            for (int from = 0; from < chunk.size(); from += JDBC_BATCH_SIZE) {
+                List<Long> batch = chunk.subList(from, Math.min(from + JDBC_BATCH_SIZE, chunk.size()));
+                inserted += jdbcTemplate.batchUpdate(INSERT_ROW_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, batch.get(i));
+                        ps.setString(2, "システムメンテナンスのお知らせ");
+                        ps.setString(3, "メンテナンスのため一時的にサービスを停止します。");
+                        ps.setString(4, Notification.NotificationType.SYSTEM_MAINTENANCE.name());
+                        ps.setTimestamp(5, Timestamp.valueOf(now));
+                        ps.setTimestamp(6, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }).length;
+            }
+        }
+        return inserted;
+    }
+
+    @Benchmark
+    public long insertSelect() {
+        LocalDateTime now = LocalDateTime.now();
+        long inserted = 0;
+        for (List<Long> chunk : chunks) {
+            inserted += notificationBatchRepository.insertForUsers(chunk, "システムメンテナンスのお知らせ",
+                    "メンテナンスのため一時的にサービスを停止します。",
+                    Notification.NotificationType.SYSTEM_MAINTENANCE, now);
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,20 @@
+package com.medicalcare.notificationservice.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * 申請サービスのクライアント（一斉配信の宛先解決用）
+ */
+@FeignClient(name = "application-service", contextId = "applicationClient")
+public interface ApplicationClient {
+
+    // 医療機関に申請したことのあるユーザーのIDを afterUserId より後ろから昇順に取得
+    @GetMapping("/api/applications/institution/{institutionId}/user-ids")
+    List<Long> getUserIdsByInstitution(@PathVariable("institutionId") Long institutionId,
+            @RequestParam("afterUserId") Long afterUserId, @RequestParam("size") int size);
+}
@@ -0,0 +1,19 @@
+package com.medicalcare.notificationservice.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * ユーザーサービスのクライアント（一斉配信の宛先解決用）
+ */
+@FeignClient(name = "user-service", contextId = "userClient")
+public interface UserClient {
+
+    // 有効なユーザーのIDを afterId より後ろから昇順に取得（role を省略すると全ロール）
+    @GetMapping("/api/users/ids")
+    List<Long> getActiveUserIds(@RequestParam(value = "role", required = false) String role,
+            @RequestParam("afterId") Long afterId, @RequestParam("size") int size);
+}
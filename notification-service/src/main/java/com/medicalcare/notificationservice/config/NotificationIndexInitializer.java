@@ -0,0 +1,41 @@
+package com.medicalcare.notificationservice.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * JPA の @Index で表せないインデックスと列の作成（テーブル作成後に実行）
+ * idx_notifications_user_unread: 未読の受信箱（ユーザーごとの新しい順）を未読の行だけのインデックスで読む
+ * push_xid: 行を作成したトランザクションのID（プッシュ配信がコミット順に新着を検出する）。
+ * エンティティには含めず、どの INSERT でも既定値で設定する。既存の行は NULL のまま（テーブルを書き換えない）
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class NotificationIndexInitializer {
+
+    // 全インスタンスで共有する pg_advisory_xact_lock のキー（同時起動時の CREATE INDEX の競合を防ぐ）
+    private static final long LOCK_KEY = 0x4E4F54494458L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_user_unread "
+                    + "ON notifications (user_id, created_at, id) WHERE status = 'UNREAD'");
+            jdbcTemplate.execute("ALTER TABLE notifications ADD COLUMN IF NOT EXISTS push_xid bigint");
+            jdbcTemplate.execute("ALTER TABLE notifications ALTER COLUMN push_xid SET DEFAULT txid_current()");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_push_xid "
+                    + "ON notifications (push_xid, id) WHERE push_xid IS NOT NULL");
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package com.medicalcare.notificationservice.controller;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 一覧レスポンスの弱いETag
+ * 各要素のバージョン（と次ページのカーソル）の MD5 から計算し、条件付きGETで本文をシリアライズせずに比較できるようにする。
+ * 要素の順序も値に含まれるため、一覧は決まった順序で取得すること
+ */
+final class ListETag {
+
+    private ListETag() {
+    }
+
+    static <T> String of(List<T> items, Function<? super T, String> versionKey) {
+        return of(items, versionKey, null);
+    }
+
+    static <T> String of(List<T> items, Function<? super T, String> versionKey, String nextCursor) {
+        StringBuilder versions = new StringBuilder();
+        for (T item : items) {
+            versions.append(versionKey.apply(item)).append(',');
+        }
+        if (nextCursor != null) {
+            versions.append(nextCursor);
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
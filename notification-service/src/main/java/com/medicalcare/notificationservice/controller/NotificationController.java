@@ -1,23 +1,241 @@
 package com.medicalcare.notificationservice.controller;
 
 import com.medicalcare.notificationservice.domain.Notification;
+import com.medicalcare.notificationservice.dto.ApplicationEvent;
+import com.medicalcare.notificationservice.dto.BroadcastJob;
+import com.medicalcare.notificationservice.dto.BroadcastRequest;
+import com.medicalcare.notificationservice.dto.BulkUpdateResult;
+import com.medicalcare.notificationservice.dto.CursorPage;
+import com.medicalcare.notificationservice.dto.NotificationCursor;
+import com.medicalcare.notificationservice.dto.NotificationSummary;
+import com.medicalcare.notificationservice.service.NotificationBulkUpdateService;
+import com.medicalcare.notificationservice.service.NotificationFanOutService;
+import com.medicalcare.notificationservice.service.NotificationPushService;
 import com.medicalcare.notificationservice.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/notifications")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = { HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED,
+        NotificationController.NEXT_CURSOR_HEADER })
 public class NotificationController {
 
+    // 次ページのカーソルを返すレスポンスヘッダー
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationFanOutService notificationFanOutService;
+
+    @Autowired
+    private NotificationPushService notificationPushService;
+
+    @Autowired
+    private NotificationBulkUpdateService notificationBulkUpdateService;
+
+    // 条件付きGETで ETag が一致した場合は、本文をシリアライズせずに 304 を返す
     @GetMapping
-    public ResponseEntity<List<Notification>> getAllNotifications() {
-        return ResponseEntity.ok(notificationService.findAll());
+    public ResponseEntity<List<NotificationSummary>> getAllNotifications() {
+        List<NotificationSummary> notifications = notificationService.findAllSummaries();
+        return ResponseEntity.ok()
+                .eTag(ListETag.of(notifications, NotificationController::versionKey))
+                .body(notifications);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Notification> getNotificationById(@PathVariable Long id) {
+        return notificationService.findById(id)
+                .map(notification -> ResponseEntity.ok()
+                        .eTag(notification.getId() + "-" + version(notification.getUpdatedAt()))
+                        .lastModified(notification.getUpdatedAt().atZone(ZoneId.systemDefault()))
+                        .body(notification))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // ユーザーの受信箱（新しい順、キーセットページング）。次ページのカーソルは X-Next-Cursor で返す
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<List<NotificationSummary>> getInbox(@PathVariable Long userId,
+            @RequestParam(required = false) Notification.NotificationStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        NotificationCursor position;
+        try {
+            position = cursor == null || cursor.isEmpty() ? NotificationCursor.FIRST
+                    : NotificationCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        CursorPage<NotificationSummary> page = notificationService.findInbox(userId, status, position,
+                Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(ListETag.of(page.getItems(), NotificationController::versionKey, page.getNextCursor()));
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+
+    // 未読件数（バッジ表示用。notifications を数えずに集計済みの件数を返す）
+    @GetMapping("/users/{userId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable Long userId) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .body(Map.of("unread", notificationService.countUnread(userId)));
+    }
+
+    // 未読件数を notifications から再集計（他のインスタンスが実行中の場合は 409）
+    @PostMapping("/unread-counts/reconcile")
+    public ResponseEntity<Void> reconcileUnreadCounts() {
+        return notificationService.reconcileUnreadCounts()
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    // upToId の通知以前（受信箱で同じか古い側）の未読をすべて既読にする
+    @PostMapping("/users/{userId}/read-all")
+    public ResponseEntity<BulkUpdateResult> markAllRead(@PathVariable Long userId, @RequestParam Long upToId) {
+        return bulkUpdate(() -> notificationBulkUpdateService.markAllReadUpTo(userId, upToId));
+    }
+
+    // 指定IDの未読を既読にする
+    @PostMapping("/users/{userId}/read")
+    public ResponseEntity<BulkUpdateResult> markRead(@PathVariable Long userId, @RequestBody List<Long> ids) {
+        return bulkUpdate(() -> notificationBulkUpdateService.markRead(userId, ids));
+    }
+
+    // olderThanDays 日より前に作成された通知をアーカイブする
+    @PostMapping("/users/{userId}/archive")
+    public ResponseEntity<BulkUpdateResult> archive(@PathVariable Long userId, @RequestParam int olderThanDays) {
+        if (olderThanDays < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return bulkUpdate(() -> notificationBulkUpdateService.archiveOlderThan(userId, olderThanDays));
+    }
+
+    // ロック競合で再試行しきれなかった場合、それまでのチャンクは更新済みのため再実行してよい
+    private ResponseEntity<BulkUpdateResult> bulkUpdate(Supplier<BulkUpdateResult> update) {
+        try {
+            return ResponseEntity.ok(update.get());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (PessimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+
+    // 新着通知のプッシュ配信（SSE）。再接続時は Last-Event-ID（またはクエリの lastEventId）より後の通知を再送する
+    @GetMapping(value = "/users/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(@PathVariable Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        try {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                    // nginx などのプロキシでバッファリングさせない
+                    .header("X-Accel-Buffering", "no")
+                    .body(notificationPushService.subscribe(userId,
+                            lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
+    // 申請サービスのアウトボックスから配信される申請イベント（eventId で重複排除するため再送してよい）
+    @PostMapping("/events")
+    public ResponseEntity<Void> receiveApplicationEvents(@RequestBody List<ApplicationEvent> events) {
+        for (ApplicationEvent event : events) {
+            if (event.getEventId() == null || event.getEventId().isBlank() || event.getStatus() == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        notificationService.handleApplicationEvents(events);
+        return ResponseEntity.noContent().build();
+    }
+
+    // 一斉配信（ALL / ROLE / INSTITUTION）。非同期に実行し、進捗は Location のジョブで参照する
+    @PostMapping("/broadcast")
+    public ResponseEntity<BroadcastJob> broadcast(@RequestBody BroadcastRequest request) {
+        if (request.getTitle() == null || request.getTitle().isBlank() || request.getMessage() == null
+                || request.getType() == null || request.getAudience() == null
+                || (request.getAudience() == BroadcastRequest.Audience.ROLE && request.getRole() == null)
+                || (request.getAudience() == BroadcastRequest.Audience.INSTITUTION
+                        && request.getInstitutionId() == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            BroadcastJob job = notificationFanOutService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/notifications/broadcast/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
+    /**
+     * 失敗・中断した一斉配信を未配信の宛先から再開する
+     */
+    @PostMapping("/broadcast/{jobId}/resume")
+    public ResponseEntity<BroadcastJob> resumeBroadcast(@PathVariable String jobId) {
+        try {
+            return notificationFanOutService.resume(jobId)
+                    .map(job -> ResponseEntity.accepted()
+                            .location(URI.create("/api/notifications/broadcast/" + job.getId()))
+                            .body(job))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
+    @GetMapping("/broadcast/{jobId}")
+    public ResponseEntity<BroadcastJob> getBroadcastJob(@PathVariable String jobId) {
+        return notificationFanOutService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static String versionKey(NotificationSummary notification) {
+        return notification.getId() + "-" + version(notification.getUpdatedAt());
+    }
+
+    // DBの精度（マイクロ秒）に揃え、保存直後と再読み込み後で同じ値にする
+    private static String version(LocalDateTime updatedAt) {
+        return updatedAt.truncatedTo(ChronoUnit.MICROS).toString();
     }
 }
@@ -8,11 +8,15 @@ import java.time.LocalDateTime;
  * システム内の通知情報を管理
  */
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_notifications_user_created_at", columnList = "user_id, created_at, id")
+})
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_id_seq")
+    @SequenceGenerator(name = "notifications_id_seq", sequenceName = "notifications_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -32,6 +36,10 @@ public class Notification {
     @Column(name = "status", nullable = false)
     private NotificationStatus status;
 
+    // 申請イベント由来の通知の重複排除キー
+    @Column(name = "event_id", length = 64, unique = true)
+    private String eventId;
+
     @Column(name = "read_at")
     private LocalDateTime readAt;
 
@@ -57,6 +65,11 @@ public class Notification {
         this.type = type;
     }
 
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     // Getter と Setter
     public Long getId() {
         return id;
@@ -106,6 +119,14 @@ public class Notification {
         this.status = status;
     }
 
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
     public LocalDateTime getReadAt() {
         return readAt;
     }
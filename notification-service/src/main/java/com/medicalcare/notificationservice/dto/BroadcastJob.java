@@ -0,0 +1,127 @@
+package com.medicalcare.notificationservice.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 一斉配信ジョブの進捗
+ * 配信スレッドのみが更新し、進捗の参照は任意のスレッドから行える
+ */
+public class BroadcastJob {
+
+    private final String id;
+    private final BroadcastRequest.Audience audience;
+    private final LocalDateTime createdAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long delivered;
+    private volatile long chunks;
+    private volatile String failure;
+
+    /**
+     * @param delivered 再開したジョブの場合、前回までに作成した件数
+     */
+    public BroadcastJob(String id, BroadcastRequest.Audience audience, long delivered) {
+        this(id, audience, delivered, LocalDateTime.now());
+    }
+
+    private BroadcastJob(String id, BroadcastRequest.Audience audience, long delivered, LocalDateTime createdAt) {
+        this.id = id;
+        this.audience = audience;
+        this.delivered = delivered;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * 保存済みの進捗から復元する（このインスタンスで実行していないジョブの参照用。開始時刻とチャンク数は不明）
+     */
+    public static BroadcastJob restore(String id, BroadcastRequest.Audience audience, long delivered, Status status,
+            String failure, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        BroadcastJob job = new BroadcastJob(id, audience, delivered, createdAt);
+        job.status = status;
+        job.failure = failure;
+        if (job.isFinished()) {
+            job.finishedAt = updatedAt;
+        }
+        return job;
+    }
+
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    public void addDelivered(int count) {
+        delivered += count;
+        chunks++;
+    }
+
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    // 途中で失敗した場合、それまでに作成した通知は残る（再開すると未配信の宛先から続ける）
+    public void fail(String message) {
+        failure = message;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public BroadcastRequest.Audience getAudience() {
+        return audience;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public long getChunks() {
+        return chunks;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    // 開始からの作成速度（件/秒）
+    public long getRecipientsPerSecond() {
+        LocalDateTime start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(Duration.between(start, end).toMillis(), 1);
+        return delivered * 1000 / millis;
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,81 @@
+package com.medicalcare.notificationservice.dto;
+
+import com.medicalcare.notificationservice.domain.Notification;
+
+/**
+ * 一斉配信の依頼
+ * 同じタイトル・本文・タイプの通知を、audience で指定した全員に作成する
+ */
+public class BroadcastRequest {
+
+    private String title;
+
+    private String message;
+
+    private Notification.NotificationType type = Notification.NotificationType.GENERAL;
+
+    private Audience audience = Audience.ALL;
+
+    // audience = ROLE の場合のロール（ユーザーサービスの UserRole）
+    private String role;
+
+    // audience = INSTITUTION の場合の医療機関ID
+    private Long institutionId;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Notification.NotificationType getType() {
+        return type;
+    }
+
+    public void setType(Notification.NotificationType type) {
+        this.type = type;
+    }
+
+    public Audience getAudience() {
+        return audience;
+    }
+
+    public void setAudience(Audience audience) {
+        this.audience = audience;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public Long getInstitutionId() {
+        return institutionId;
+    }
+
+    public void setInstitutionId(Long institutionId) {
+        this.institutionId = institutionId;
+    }
+
+    /**
+     * 配信対象
+     */
+    public enum Audience {
+        ALL, // 有効な全ユーザー
+        ROLE, // 指定ロールの有効なユーザー
+        INSTITUTION // 医療機関に申請したことのあるユーザー
+    }
+}
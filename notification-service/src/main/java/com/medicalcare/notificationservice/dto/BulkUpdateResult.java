@@ -0,0 +1,35 @@
+package com.medicalcare.notificationservice.dto;
+
+/**
+ * 一括既読・一括アーカイブの結果
+ */
+public class BulkUpdateResult {
+
+    private long updated;
+
+    private int chunks;
+
+    // ロック待ちのタイムアウトで再試行した回数
+    private int retries;
+
+    public void addChunk(int count) {
+        updated += count;
+        chunks++;
+    }
+
+    public void addRetry() {
+        retries++;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+}
@@ -0,0 +1,27 @@
+package com.medicalcare.notificationservice.dto;
+
+import java.util.List;
+
+/**
+ * カーソルページ
+ * キーセットページネーションの1ページ分の結果と次ページのカーソルを保持
+ */
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    // 次ページのカーソル（最終ページの場合は null）
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,73 @@
+package com.medicalcare.notificationservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 通知カーソル
+ * (createdAt, id) の組を不透明な文字列としてエンコード・デコードする（SSE のイベントIDにも使う）
+ */
+public final class NotificationCursor {
+
+    /**
+     * 新しい順の先頭ページを表す番兵値（PostgreSQLのtimestamp範囲内に収まる最大値）
+     */
+    public static final NotificationCursor FIRST = new NotificationCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public NotificationCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static NotificationCursor of(NotificationSummary notification) {
+        return new NotificationCursor(notification.getCreatedAt(), notification.getId());
+    }
+
+    /**
+     * カーソル文字列をデコード（null・空文字の場合は null）
+     *
+     * @throws IllegalArgumentException カーソルが不正な場合
+     */
+    public static NotificationCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new NotificationCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,66 @@
+package com.medicalcare.notificationservice.dto;
+
+import com.medicalcare.notificationservice.domain.Notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * 通知サマリー
+ * 一覧表示用に、本文（TEXT 列）を除いた列だけを保持する
+ */
+public class NotificationSummary {
+
+    private final Long id;
+    private final Long userId;
+    private final String title;
+    private final Notification.NotificationType type;
+    private final Notification.NotificationStatus status;
+    private final LocalDateTime readAt;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public NotificationSummary(Long id, Long userId, String title, Notification.NotificationType type,
+            Notification.NotificationStatus status, LocalDateTime readAt, LocalDateTime createdAt,
+            LocalDateTime updatedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.title = title;
+        this.type = type;
+        this.status = status;
+        this.readAt = readAt;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Notification.NotificationType getType() {
+        return type;
+    }
+
+    public Notification.NotificationStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
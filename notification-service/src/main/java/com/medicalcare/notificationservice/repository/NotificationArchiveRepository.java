@@ -0,0 +1,89 @@
+package com.medicalcare.notificationservice.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 保持期間を過ぎた通知のコールドテーブル（notifications_archive）
+ * 追記のみのため fillfactor 100 で詰めて格納し、インデックスはユーザーごとの参照用の1つだけにする。
+ * 移動は DELETE ... RETURNING と INSERT を1文で行うため、途中で失敗しても二重登録・欠落は起きない
+ */
+@Repository
+public class NotificationArchiveRepository {
+
+    private static final String TABLE = "notifications_archive";
+
+    private static final String COLUMNS = "id, user_id, title, message, type, status, read_at, event_id, "
+            + "created_at, updated_at";
+
+    // 既読は作成から、アーカイブ済みはアーカイブ（最終更新）から保持期間を数える。未読は移動しない。
+    // 前のバッチの最後のIDより後から主キー順に読むため、移動できない行（未読・保持期間内）や
+    // 前のバッチで削除した行を毎回先頭から読み直さない（1回の実行でテーブルを1度だけ走査する）
+    private static final String MOVE_SQL = "WITH moved AS ("
+            + "DELETE FROM notifications WHERE id IN ("
+            + "SELECT id FROM notifications WHERE id > ? "
+            + "AND ((status = 'ARCHIVED' AND updated_at < ?) OR (status = 'READ' AND created_at < ?)) "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING " + COLUMNS + "), "
+            + "archived AS (INSERT INTO " + TABLE + " (" + COLUMNS + ", archived_at) "
+            + "SELECT " + COLUMNS + ", ? FROM moved) "
+            + "SELECT count(*), coalesce(sum(pg_column_size(moved.*)), 0), max(id) FROM moved";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void createTableIfNotExists() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "id bigint PRIMARY KEY, "
+                + "user_id bigint NOT NULL, "
+                + "title varchar(255) NOT NULL, "
+                + "message text NOT NULL, "
+                + "type varchar(255) NOT NULL, "
+                + "status varchar(255) NOT NULL, "
+                + "read_at timestamp, "
+                + "event_id varchar(64), "
+                + "created_at timestamp NOT NULL, "
+                + "updated_at timestamp NOT NULL, "
+                + "archived_at timestamp NOT NULL) WITH (fillfactor = 100)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_archive_user_created_at "
+                + "ON " + TABLE + " (user_id, created_at, id)");
+    }
+
+    /**
+     * afterId より後の、保持期間を過ぎた通知を ID 順に最大 limit 件コールドテーブルへ移動する
+     * （他のトランザクションがロック中の行は飛ばし、次回の実行で移動する）
+     */
+    public Moved moveExpired(long afterId, LocalDateTime archivedBefore, LocalDateTime readBefore, int limit,
+            LocalDateTime now) {
+        return jdbcTemplate.queryForObject(MOVE_SQL, (rs, rowNum) -> {
+            long lastId = rs.getLong(3);
+            return new Moved(rs.getInt(1), rs.getLong(2), rs.wasNull() ? afterId : lastId);
+        }, afterId, Timestamp.valueOf(archivedBefore), Timestamp.valueOf(readBefore), limit, Timestamp.valueOf(now));
+    }
+
+    /**
+     * テーブル・インデックス・TOAST を含むサイズ（バイト）
+     */
+    public long totalSize(String table) {
+        Long size = jdbcTemplate.queryForObject("SELECT coalesce(pg_total_relation_size(to_regclass(?)), 0)",
+                Long.class, table);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 削除した行の領域を再利用できるようにする（トランザクション外で実行すること）
+     */
+    public void vacuum(String table) {
+        jdbcTemplate.execute("VACUUM (ANALYZE) " + table);
+    }
+
+    /**
+     * 1回の移動結果（件数、移動した行のバイト数、移動した最後のID）
+     */
+    public record Moved(int rows, long bytes, long lastId) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.medicalcare.notificationservice.repository;
+
+import com.medicalcare.notificationservice.domain.Notification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 通知の一括作成・一括更新（永続化コンテキストを経由しない）
+ * 作成: 同じ内容の通知を宛先ユーザーIDの配列から INSERT ... SELECT 1文で作成する。
+ * ID は Hibernate と同じ notifications_id_seq から払い出す。
+ * 更新: 条件に合う行を最大 limit 件ロックし、UPDATE 1文でステータスを変更して変更前のステータスを返す
+ */
+@Repository
+public class NotificationBatchRepository {
+
+    private static final String INSERT_FOR_USERS_SQL = "INSERT INTO notifications "
+            + "(id, user_id, title, message, type, status, created_at, updated_at) "
+            + "SELECT nextval('notifications_id_seq'), u.user_id, ?, ?, ?, 'UNREAD', ?, ? "
+            + "FROM unnest(?::bigint[]) AS u(user_id)";
+
+    // 対象行を id 順にロックし（同時実行時のロック順序を揃える）、変更前のステータスを返す
+    private static final String UPDATE_STATUS_SQL = "WITH target AS ("
+            + "SELECT id, status FROM notifications WHERE user_id = ? AND %s ORDER BY id LIMIT ? FOR UPDATE) "
+            + "UPDATE notifications n SET status = ?, read_at = %s, updated_at = ? "
+            + "FROM target WHERE n.id = target.id RETURNING target.status";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return 作成した通知の件数
+     */
+    public int insertForUsers(List<Long> userIds, String title, String message,
+            Notification.NotificationType type, LocalDateTime createdAt) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        return jdbcTemplate.update(INSERT_FOR_USERS_SQL, ps -> {
+            Array array = ps.getConnection().createArrayOf("bigint", userIds.toArray());
+            ps.setString(1, title);
+            ps.setString(2, message);
+            ps.setString(3, type.name());
+            ps.setTimestamp(4, timestamp);
+            ps.setTimestamp(5, timestamp);
+            ps.setArray(6, array);
+        });
+    }
+
+    /**
+     * (createdAt, id) の位置以前（受信箱で指定した通知より古い側）の未読を最大 limit 件既読にする
+     */
+    public List<Notification.NotificationStatus> markReadUpTo(Long userId, LocalDateTime createdAt, Long id,
+            LocalDateTime now, int limit) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        return updateStatus(userId, "status = 'UNREAD' AND (created_at < ? OR (created_at = ? AND id <= ?))",
+                new Object[] { timestamp, timestamp, id }, Notification.NotificationStatus.READ, now, limit);
+    }
+
+    /**
+     * 指定IDの未読を既読にする（他のユーザーの通知は対象外）
+     */
+    public List<Notification.NotificationStatus> markRead(Long userId, Collection<Long> ids, LocalDateTime now) {
+        return updateStatus(userId, "status = 'UNREAD' AND id = ANY(?)", new Object[] { ids.toArray(new Long[0]) },
+                Notification.NotificationStatus.READ, now, ids.size());
+    }
+
+    /**
+     * createdBefore より前に作成された未アーカイブの通知を最大 limit 件アーカイブする
+     */
+    public List<Notification.NotificationStatus> archiveCreatedBefore(Long userId, LocalDateTime createdBefore,
+            LocalDateTime now, int limit) {
+        return updateStatus(userId, "status <> 'ARCHIVED' AND created_at < ?",
+                new Object[] { Timestamp.valueOf(createdBefore) }, Notification.NotificationStatus.ARCHIVED, now,
+                limit);
+    }
+
+    private List<Notification.NotificationStatus> updateStatus(Long userId, String condition, Object[] args,
+            Notification.NotificationStatus status, LocalDateTime now, int limit) {
+        boolean read = status == Notification.NotificationStatus.READ;
+        String sql = String.format(UPDATE_STATUS_SQL, condition, read ? "coalesce(n.read_at, ?)" : "n.read_at");
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.query(sql, ps -> {
+            int index = 1;
+            ps.setLong(index++, userId);
+            for (Object arg : args) {
+                if (arg instanceof Long[] ids) {
+                    ps.setArray(index++, ps.getConnection().createArrayOf("bigint", ids));
+                } else {
+                    ps.setObject(index++, arg);
+                }
+            }
+            ps.setInt(index++, limit);
+            ps.setString(index++, status.name());
+            if (read) {
+                ps.setTimestamp(index++, timestamp);
+            }
+            ps.setTimestamp(index, timestamp);
+        }, (rs, rowNum) -> Notification.NotificationStatus.valueOf(rs.getString(1)));
+    }
+}
@@ -0,0 +1,100 @@
+package com.medicalcare.notificationservice.repository;
+
+import com.medicalcare.notificationservice.domain.Notification;
+import com.medicalcare.notificationservice.dto.BroadcastRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 一斉配信ジョブの進捗（notification_broadcasts）
+ * 配信済みの最後の宛先ユーザーIDをチャンクの作成と同じトランザクションで進め、失敗したジョブをその続きから再開できるようにする
+ */
+@Repository
+public class NotificationBroadcastRepository {
+
+    private static final String TABLE = "notification_broadcasts";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void createTableIfNotExists() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "id varchar(36) PRIMARY KEY, "
+                + "audience varchar(16) NOT NULL, "
+                + "role varchar(64), "
+                + "institution_id bigint, "
+                + "type varchar(64) NOT NULL, "
+                + "title varchar(255) NOT NULL, "
+                + "message text NOT NULL, "
+                + "last_user_id bigint NOT NULL DEFAULT 0, "
+                + "delivered bigint NOT NULL DEFAULT 0, "
+                + "status varchar(16) NOT NULL, "
+                + "failure text, "
+                + "created_at timestamp NOT NULL, "
+                + "updated_at timestamp NOT NULL)");
+    }
+
+    public void insert(String id, BroadcastRequest request, String status) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (id, audience, role, institution_id, type, title, message, "
+                + "status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, request.getAudience().name(), request.getRole(), request.getInstitutionId(),
+                request.getType().name(), request.getTitle(), request.getMessage(), status, now, now);
+    }
+
+    public Optional<Stored> find(String id) {
+        return jdbcTemplate.query("SELECT audience, role, institution_id, type, title, message, last_user_id, "
+                + "delivered, status, failure, created_at, updated_at FROM " + TABLE + " WHERE id = ?",
+                (rs, rowNum) -> {
+                    BroadcastRequest request = new BroadcastRequest();
+                    request.setAudience(BroadcastRequest.Audience.valueOf(rs.getString("audience")));
+                    request.setRole(rs.getString("role"));
+                    request.setInstitutionId(rs.getObject("institution_id", Long.class));
+                    request.setType(Notification.NotificationType.valueOf(rs.getString("type")));
+                    request.setTitle(rs.getString("title"));
+                    request.setMessage(rs.getString("message"));
+                    return new Stored(request, rs.getLong("last_user_id"), rs.getLong("delivered"),
+                            rs.getString("status"), rs.getString("failure"),
+                            rs.getTimestamp("created_at").toLocalDateTime(),
+                            rs.getTimestamp("updated_at").toLocalDateTime());
+                }, id).stream().findFirst();
+    }
+
+    /**
+     * 1チャンク分の配信を記録する（チャンクの作成と同じトランザクションで呼ぶ）
+     *
+     * @return 他の実行が先に進めていた場合 false（呼び出し側はロールバックする）
+     */
+    public boolean advance(String id, long fromUserId, long toUserId, int delivered) {
+        return jdbcTemplate.update("UPDATE " + TABLE + " SET last_user_id = ?, delivered = delivered + ?, "
+                + "updated_at = ? WHERE id = ? AND last_user_id = ?", toUserId, delivered,
+                Timestamp.valueOf(LocalDateTime.now()), id, fromUserId) == 1;
+    }
+
+    public void updateStatus(String id, String status, String failure) {
+        jdbcTemplate.update("UPDATE " + TABLE + " SET status = ?, failure = ?, updated_at = ? WHERE id = ?",
+                status, failure, Timestamp.valueOf(LocalDateTime.now()), id);
+    }
+
+    /**
+     * 終了（完了・失敗）してから更新のないジョブを削除する
+     */
+    public int deleteFinishedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE status IN ('COMPLETED', 'FAILED') "
+                + "AND updated_at < ?", Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * 保存済みのジョブ（再開・再起動後の進捗参照用）
+     *
+     * @param lastUserId 配信済みの最後の宛先ユーザーID（未配信の場合 0）
+     */
+    public record Stored(BroadcastRequest request, long lastUserId, long delivered, String status, String failure,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+}
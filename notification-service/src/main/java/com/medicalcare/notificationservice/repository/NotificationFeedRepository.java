@@ -0,0 +1,83 @@
+package com.medicalcare.notificationservice.repository;
+
+import com.medicalcare.notificationservice.domain.Notification;
+import com.medicalcare.notificationservice.dto.NotificationSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 通知のプッシュ配信用の読み込み
+ * 接続中のユーザー数は数万になるため、ユーザーIDは IN 句ではなく配列1つで渡す
+ * <p>
+ * 新着はコミット順に検出するため、作成したトランザクションのID（push_xid、既定値 txid_current()）で取得する。
+ * スナップショットの xmin（実行中の最も古いトランザクション）より前のトランザクションはすべて完了しているので、
+ * 前回の xmin 以降の push_xid を読めば、作成日時やコミットまでの時間に関係なく新たにコミットされた行を取りこぼさない
+ */
+@Repository
+public class NotificationFeedRepository {
+
+    private static final String SUMMARY_COLUMNS = "SELECT id, user_id, title, type, status, read_at, created_at, "
+            + "updated_at FROM notifications ";
+
+    private static final RowMapper<NotificationSummary> SUMMARY_MAPPER = (rs, rowNum) -> new NotificationSummary(
+            rs.getLong("id"), rs.getLong("user_id"), rs.getString("title"),
+            Notification.NotificationType.valueOf(rs.getString("type")),
+            Notification.NotificationStatus.valueOf(rs.getString("status")),
+            toLocalDateTime(rs.getTimestamp("read_at")), toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at")));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 現在のスナップショットの xmin（これより前のトランザクションはコミット済みかロールバック済み）
+     */
+    public long currentHorizon() {
+        return jdbcTemplate.queryForObject("SELECT txid_snapshot_xmin(txid_current_snapshot())", Long.class);
+    }
+
+    /**
+     * 指定ユーザーのいずれかの、(xid, id) より後のトランザクションで作成された通知を (push_xid, id) 順に取得する
+     * push_xid >= ? は行比較と同じ範囲だが、部分インデックス idx_notifications_push_xid（push_xid IS NOT NULL）を
+     * 使えることをプランナーが証明できるよう明示する（行比較からは IS NOT NULL を導出しない）
+     */
+    public List<Pushed> findCreatedByTransactionsAfter(Collection<Long> userIds, long xid, long id, int limit) {
+        return jdbcTemplate.query("SELECT id, user_id, title, type, status, read_at, created_at, updated_at, push_xid "
+                + "FROM notifications WHERE push_xid >= ? AND (push_xid, id) > (?, ?) AND user_id = ANY(?::bigint[]) "
+                + "ORDER BY push_xid, id LIMIT ?", ps -> {
+                    ps.setLong(1, xid);
+                    ps.setLong(2, xid);
+                    ps.setLong(3, id);
+                    ps.setArray(4, ps.getConnection().createArrayOf("bigint", userIds.toArray()));
+                    ps.setInt(5, limit);
+                }, (rs, rowNum) -> new Pushed(rs.getLong("push_xid"), SUMMARY_MAPPER.mapRow(rs, rowNum)));
+    }
+
+    /**
+     * 1ユーザーの (createdAt, id) より後に作成された通知を作成順に取得する（再接続時の再送用）
+     */
+    public List<NotificationSummary> findByUserCreatedAfter(Long userId, LocalDateTime createdAt, long id,
+            int limit) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        return jdbcTemplate.query(SUMMARY_COLUMNS
+                + "WHERE user_id = ? AND (created_at > ? OR (created_at = ? AND id > ?)) "
+                + "ORDER BY created_at, id LIMIT ?", SUMMARY_MAPPER, userId, timestamp, timestamp, id, limit);
+    }
+
+    /**
+     * 作成したトランザクションのIDと通知
+     */
+    public record Pushed(long xid, NotificationSummary notification) {
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -1,14 +1,52 @@
 package com.medicalcare.notificationservice.repository;
 
 import com.medicalcare.notificationservice.domain.Notification;
+import com.medicalcare.notificationservice.dto.NotificationSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    String SUMMARY_SELECT = "SELECT new com.medicalcare.notificationservice.dto.NotificationSummary("
+            + "n.id, n.userId, n.title, n.type, n.status, n.readAt, n.createdAt, n.updatedAt) FROM Notification n";
+
+    // 新しい順のキーセット条件（(createdAt, id) がカーソルより前）
+    String INBOX_CONDITION = " WHERE n.userId = :userId AND (n.createdAt < :createdAt"
+            + " OR (n.createdAt = :createdAt AND n.id < :id))";
+
+    String INBOX_ORDER = " ORDER BY n.createdAt DESC, n.id DESC";
+
     List<Notification> findByUserId(Long userId);
 
     List<Notification> findByStatus(Notification.NotificationStatus status);
+
+    // 一覧用（本文は読み込まない）。ETag が行の順序に依存するため ID 順に返す
+    @Query(SUMMARY_SELECT + " ORDER BY n.id")
+    List<NotificationSummary> findAllSummaries();
+
+    // ユーザーの受信箱（idx_notifications_user_created_at）
+    @Query(SUMMARY_SELECT + INBOX_CONDITION + INBOX_ORDER)
+    List<NotificationSummary> findInbox(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Pageable pageable);
+
+    // ステータスで絞り込んだ受信箱（UNREAD は部分インデックス idx_notifications_user_unread）
+    @Query(SUMMARY_SELECT + INBOX_CONDITION + " AND n.status = :status" + INBOX_ORDER)
+    List<NotificationSummary> findInboxByStatus(@Param("userId") Long userId,
+            @Param("status") Notification.NotificationStatus status, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Pageable pageable);
+
+    // 更新前のステータス（一括更新と同時に未読件数を増減しないよう行ロックを取る）
+    @Query(value = "SELECT status FROM notifications WHERE id = :id FOR UPDATE", nativeQuery = true)
+    String findStatusByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT n.eventId FROM Notification n WHERE n.eventId IN :eventIds")
+    List<String> findExistingEventIds(Collection<String> eventIds);
 }
@@ -0,0 +1,68 @@
+package com.medicalcare.notificationservice.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * ユーザーごとの未読件数（notification_unread_counts）
+ * 同じユーザーの件数行への同時更新が行ロックで直列化されないよう、1ユーザーを複数のスロット行に分けて加算し、
+ * 読み込み時にスロットを合計する
+ */
+@Repository
+public class NotificationUnreadCountRepository {
+
+    private static final String TABLE = "notification_unread_counts";
+
+    // 1文で複数ユーザー分を反映する（同じ文に同じユーザーを2回含めないこと）
+    private static final String UPSERT = "INSERT INTO " + TABLE + " (user_id, slot, unread) "
+            + "SELECT d.user_id, ?, d.delta FROM unnest(?::bigint[], ?::bigint[]) AS d(user_id, delta) "
+            + "ON CONFLICT (user_id, slot) DO UPDATE SET unread = " + TABLE + ".unread + EXCLUDED.unread";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void createTableIfNotExists() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "user_id bigint NOT NULL, "
+                + "slot smallint NOT NULL, "
+                + "unread bigint NOT NULL, "
+                + "PRIMARY KEY (user_id, slot))");
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + TABLE + ")", Boolean.class));
+    }
+
+    /**
+     * notifications から未読件数を集計し直す（既存の件数は置き換える）
+     * 件数を更新中のトランザクションの完了を待ち、集計が終わるまで件数の更新を止める
+     * （集計に含まれない通知の増減が、置き換えで消えたり二重に数えられたりしないようにする）。
+     * 件数の読み込みは止めない
+     */
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN SHARE ROW EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM " + TABLE);
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (user_id, slot, unread) "
+                + "SELECT user_id, 0, count(*) FROM notifications WHERE status = 'UNREAD' GROUP BY user_id");
+    }
+
+    /**
+     * 件数の増減をまとめて反映する
+     * 呼び出し側はデッドロックを避けるため、ユーザーIDの昇順に並べて渡すこと
+     */
+    public void applyDeltas(int slot, Long[] userIds, Long[] deltas) {
+        jdbcTemplate.update(UPSERT, ps -> {
+            ps.setInt(1, slot);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", userIds));
+            ps.setArray(3, ps.getConnection().createArrayOf("bigint", deltas));
+        });
+    }
+
+    public long countUnread(Long userId) {
+        Long unread = jdbcTemplate.queryForObject("SELECT coalesce(sum(unread), 0) FROM " + TABLE
+                + " WHERE user_id = ?", Long.class, userId);
+        return unread == null ? 0 : unread;
+    }
+}
@@ -0,0 +1,154 @@
+package com.medicalcare.notificationservice.service;
+
+import com.medicalcare.notificationservice.domain.Notification;
+import com.medicalcare.notificationservice.dto.BulkUpdateResult;
+import com.medicalcare.notificationservice.repository.NotificationBatchRepository;
+import com.medicalcare.notificationservice.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 通知の一括既読・一括アーカイブ
+ * 1チャンク（chunk-size 件）を1トランザクションの UPDATE 1文で更新し、同じトランザクションで未読件数を減算する。
+ * 各トランザクションには lock_timeout を設定し、他の更新とロックが競合した場合はジッター付き指数バックオフで
+ * 再試行する（長いロック待ちで接続とロックを占有しない）
+ */
+@Service
+public class NotificationBulkUpdateService {
+
+    @Autowired
+    private NotificationBatchRepository notificationBatchRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationUnreadCounter notificationUnreadCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${notification.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${notification.bulk.max-ids:1000}")
+    private int maxIds;
+
+    @Value("${notification.bulk.lock-timeout:2s}")
+    private Duration lockTimeout;
+
+    @Value("${notification.bulk.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${notification.bulk.initial-backoff:50ms}")
+    private Duration initialBackoff;
+
+    /**
+     * 受信箱で指定した通知（upToId）以前の未読をすべて既読にする
+     *
+     * @throws NoSuchElementException upToId がユーザーの通知でない場合
+     */
+    public BulkUpdateResult markAllReadUpTo(Long userId, Long upToId) {
+        Notification upTo = notificationRepository.findById(upToId)
+                .filter(notification -> notification.getUserId().equals(userId))
+                .orElseThrow(() -> new NoSuchElementException("Notification not found: " + upToId));
+        LocalDateTime now = LocalDateTime.now();
+        return run(userId, () -> notificationBatchRepository.markReadUpTo(userId, upTo.getCreatedAt(),
+                upTo.getId(), now, chunkSize));
+    }
+
+    /**
+     * 指定IDの未読を既読にする
+     *
+     * @throws IllegalArgumentException ID が max-ids を超える場合
+     */
+    public BulkUpdateResult markRead(Long userId, List<Long> ids) {
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be marked at once");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkUpdateResult result = new BulkUpdateResult();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            update(userId, () -> notificationBatchRepository.markRead(userId, chunk, now), result);
+        }
+        return result;
+    }
+
+    /**
+     * days 日より前に作成された通知をアーカイブする
+     */
+    public BulkUpdateResult archiveOlderThan(Long userId, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusDays(days);
+        return run(userId, () -> notificationBatchRepository.archiveCreatedBefore(userId, cutoff, now, chunkSize));
+    }
+
+    // 対象がなくなる（チャンクが chunk-size 未満になる）までチャンクを繰り返す
+    private BulkUpdateResult run(Long userId, Supplier<List<Notification.NotificationStatus>> chunk) {
+        BulkUpdateResult result = new BulkUpdateResult();
+        int updated;
+        do {
+            // 更新済みの行は条件から外れるため、同じ条件で次のチャンクを取得できる
+            updated = update(userId, chunk, result);
+        } while (updated >= chunkSize);
+        return result;
+    }
+
+    /**
+     * 1チャンクを1トランザクションで更新する（ロック待ちのタイムアウトは max-attempts 回まで再試行）
+     *
+     * @return 更新した件数
+     */
+    private int update(Long userId, Supplier<List<Notification.NotificationStatus>> chunk, BulkUpdateResult result) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer updated = transactionTemplate.execute(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+                    List<Notification.NotificationStatus> previous = chunk.get();
+                    long unread = previous.stream()
+                            .filter(s -> s == Notification.NotificationStatus.UNREAD)
+                            .count();
+                    if (unread > 0) {
+                        notificationUnreadCounter.changed(Map.of(userId, -unread));
+                    }
+                    return previous.size();
+                });
+                result.addChunk(updated);
+                return updated;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                result.addRetry();
+                sleep(attempt);
+            }
+        }
+    }
+
+    // フルジッター付き指数バックオフ
+    private void sleep(int attempt) {
+        long ceiling = initialBackoff.toMillis() << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying bulk notification update", e);
+        }
+    }
+}
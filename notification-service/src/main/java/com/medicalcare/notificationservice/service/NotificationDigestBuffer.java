@@ -0,0 +1,270 @@
+package com.medicalcare.notificationservice.service;
+
+import com.medicalcare.notificationservice.domain.Notification;
+import com.medicalcare.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 通知のまとめ（ダイジェスト）
+ * 同じ宛先・同じタイプの通知を window の間バッファーし、2件以上たまった場合は1件のダイジェスト通知にまとめて作成する。
+ * window の起点は最初の通知で、max-items 件たまった場合は window を待たずに作成する
+ * <p>
+ * バッファーは (ユーザーID, タイプ) ごとで、max-keys に達している間は新しいキーの通知をまとめずにそのまま作成する。
+ * DB への書き込みはすべて flush のスレッドで行い（追加元のトランザクションには参加しない）、作成日時は書き込み時刻にする。
+ * バッファー中の通知はインスタンスの異常終了で失われる（正常終了時は作成してから停止する）。
+ * 同じ eventId の再配信は、バッファー中と作成後しばらく（recent-event-ids 件）の間は無視する
+ */
+@Component
+public class NotificationDigestBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDigestBuffer.class);
+
+    // ダイジェストの本文に列挙する件数（残りは件数のみ）
+    private static final int MAX_LISTED_ITEMS = 20;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationUnreadCounter notificationUnreadCounter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.digest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.digest.types:APPLICATION_SUBMITTED,APPLICATION_REVIEWING}")
+    private Set<Notification.NotificationType> types;
+
+    @Value("${notification.digest.window:60s}")
+    private Duration window;
+
+    @Value("${notification.digest.max-items:50}")
+    private int maxItems;
+
+    @Value("${notification.digest.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${notification.digest.recent-event-ids:100000}")
+    private int recentEventIdLimit;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    // window を待たずに作成するまとめ（max-items に達したもの・max-keys を超えてまとめなかったもの）
+    private final ConcurrentLinkedQueue<List<Notification>> ready = new ConcurrentLinkedQueue<>();
+
+    private final Set<String> pendingEventIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger pendingItems = new AtomicInteger();
+
+    // 作成済みの eventId（古いものから削除する）
+    private Map<String, Boolean> recentEventIds;
+
+    private Counter buffered;
+
+    private Counter written;
+
+    private Counter dropped;
+
+    @PostConstruct
+    public void start() {
+        recentEventIds = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentEventIdLimit;
+            }
+        });
+        Gauge.builder("notification.digest.pending", pendingItems, AtomicInteger::get).register(meterRegistry);
+        buffered = meterRegistry.counter("notification.digest.buffered");
+        written = meterRegistry.counter("notification.digest.written");
+        dropped = meterRegistry.counter("notification.digest.dropped");
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush(true);
+    }
+
+    public boolean accepts(Notification notification) {
+        return enabled && types.contains(notification.getType());
+    }
+
+    /**
+     * バッファー中または作成済みの eventId か
+     */
+    public boolean isKnown(String eventId) {
+        return eventId != null && (pendingEventIds.contains(eventId) || recentEventIds.containsKey(eventId));
+    }
+
+    /**
+     * 通知をバッファーに追加する（DB には書き込まない）
+     * max-keys に達している間の新しいキーは、まとめずに次の flush で作成する
+     */
+    public void add(Notification notification) {
+        if (notification.getEventId() != null && !pendingEventIds.add(notification.getEventId())) {
+            return;
+        }
+        pendingItems.incrementAndGet();
+        buffered.increment();
+        Key key = new Key(notification.getUserId(), notification.getType());
+        if (!pending.containsKey(key) && pending.size() >= maxKeys) {
+            ready.add(List.of(notification));
+            return;
+        }
+        pending.compute(key, (k, entry) -> {
+            Pending current = entry != null ? entry : new Pending(System.nanoTime());
+            current.items.add(notification);
+            if (current.items.size() >= maxItems) {
+                ready.add(current.items);
+                return null;
+            }
+            return current;
+        });
+    }
+
+    /**
+     * window を過ぎたバッファーと、すぐ作成するまとめを作成する
+     */
+    @Scheduled(fixedDelayString = "${notification.digest.flush-interval:1s}")
+    public void flushExpired() {
+        flush(false);
+    }
+
+    private void flush(boolean all) {
+        long now = System.nanoTime();
+        List<List<Notification>> groups = new ArrayList<>();
+        for (List<Notification> group = ready.poll(); group != null; group = ready.poll()) {
+            groups.add(group);
+        }
+        for (Key key : pending.keySet()) {
+            pending.computeIfPresent(key, (k, entry) -> {
+                if (all || now - entry.startedAt >= window.toNanos()) {
+                    groups.add(entry.items);
+                    return null;
+                }
+                return entry;
+            });
+        }
+        if (groups.isEmpty()) {
+            return;
+        }
+        try {
+            write(groups);
+            groups.forEach(group -> release(group, true));
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} notification digests together, writing them one by one", groups.size(), e);
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            List<Notification> group = groups.get(i);
+            try {
+                write(List.of(group));
+                release(group, true);
+            } catch (DataIntegrityViolationException e) {
+                // 他のインスタンスが同じ eventId の通知を作成済みなど、再試行しても作成できない
+                log.warn("Dropped a notification digest for user {}", group.get(0).getUserId(), e);
+                dropped.increment(group.size());
+                release(group, false);
+            } catch (RuntimeException e) {
+                if (all) {
+                    log.error("Could not write {} buffered notification digests on shutdown", groups.size() - i, e);
+                    groups.subList(i, groups.size()).forEach(remaining -> release(remaining, false));
+                    dropped.increment(groups.subList(i, groups.size()).stream().mapToInt(List::size).sum());
+                } else {
+                    // DB の障害などは次回の flush で再試行する
+                    log.warn("Could not write notification digests, retrying on the next flush", e);
+                    ready.addAll(groups.subList(i, groups.size()));
+                }
+                return;
+            }
+        }
+    }
+
+    // バッファーごとに1件（2件以上はダイジェスト）を1トランザクションで作成する
+    private void write(List<List<Notification>> groups) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> notifications = new ArrayList<>(groups.size());
+        for (List<Notification> group : groups) {
+            Notification notification = group.size() == 1 ? group.get(0) : digest(group);
+            // 失敗したトランザクションで割り当てられたIDは使わない
+            notification.setId(null);
+            notification.setCreatedAt(now);
+            notification.setUpdatedAt(now);
+            notifications.add(notification);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationRepository.saveAll(notifications);
+            notificationUnreadCounter.created(notifications.stream().map(Notification::getUserId).toList());
+        });
+        written.increment(notifications.size());
+    }
+
+    // 作成したまとめの eventId は再配信を無視できるように覚えておく（作成できなかった場合は再配信を受け付ける）
+    private void release(List<Notification> group, boolean created) {
+        for (Notification notification : group) {
+            if (notification.getEventId() != null) {
+                if (created) {
+                    recentEventIds.put(notification.getEventId(), Boolean.TRUE);
+                }
+                pendingEventIds.remove(notification.getEventId());
+            }
+        }
+        pendingItems.addAndGet(-group.size());
+    }
+
+    private static Notification digest(List<Notification> group) {
+        Notification first = group.get(0);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < Math.min(group.size(), MAX_LISTED_ITEMS); i++) {
+            message.append("・").append(group.get(i).getMessage()).append('\n');
+        }
+        if (group.size() > MAX_LISTED_ITEMS) {
+            message.append("ほか").append(group.size() - MAX_LISTED_ITEMS).append("件");
+        }
+        // 個々の eventId は持たない（再配信の検出は isKnown で行う）
+        return new Notification(first.getUserId(), first.getTitle() + "（" + group.size() + "件）",
+                message.toString().stripTrailing(), first.getType());
+    }
+
+    private record Key(Long userId, Notification.NotificationType type) {
+    }
+
+    private static class Pending {
+
+        private final long startedAt;
+
+        private final List<Notification> items = new ArrayList<>();
+
+        Pending(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
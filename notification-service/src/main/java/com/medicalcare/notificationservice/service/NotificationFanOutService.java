@@ -0,0 +1,288 @@
+package com.medicalcare.notificationservice.service;
+
+import com.medicalcare.notificationservice.client.ApplicationClient;
+import com.medicalcare.notificationservice.client.UserClient;
+import com.medicalcare.notificationservice.dto.BroadcastJob;
+import com.medicalcare.notificationservice.dto.BroadcastRequest;
+import com.medicalcare.notificationservice.repository.NotificationBatchRepository;
+import com.medicalcare.notificationservice.repository.NotificationBroadcastRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知の一斉配信（ファンアウト）
+ * 宛先ユーザーIDを chunk-size 件ずつ取得し、1チャンクを INSERT ... SELECT 1文で作成する（未読件数も同じトランザクションで加算）。
+ * 次のチャンクの宛先取得は現在のチャンクの作成と並行して行う。
+ * 進捗はジョブIDで参照でき、作成件数とチャンクごとの所要時間をメトリクス
+ * （notification.fanout.delivered / notification.fanout.chunk）に記録する
+ * <p>
+ * 配信済みの最後の宛先ユーザーIDはチャンクと同じトランザクションで notification_broadcasts に記録し、
+ * 途中で失敗したジョブ（インスタンスの停止を含む）は {@link #resume} で未配信の宛先から再開する（同じ宛先に二重に作成しない）。
+ * 通知の作成日時はチャンクごとの作成時刻にする
+ */
+@Service
+public class NotificationFanOutService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationFanOutService.class);
+
+    // 全インスタンスで共有する pg_advisory_xact_lock のキー（同時起動時の CREATE TABLE の競合を防ぐ）
+    private static final long LOCK_KEY = 0x4E4F5442524443L;
+
+    @Autowired
+    private NotificationBatchRepository notificationBatchRepository;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private ApplicationClient applicationClient;
+
+    @Autowired
+    private NotificationUnreadCounter notificationUnreadCounter;
+
+    @Autowired
+    private NotificationBroadcastRepository notificationBroadcastRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.fanout.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${notification.fanout.workers:1}")
+    private int workers;
+
+    @Value("${notification.fanout.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${notification.fanout.retained-jobs:100}")
+    private int retainedJobs;
+
+    @Value("${notification.fanout.retention:30d}")
+    private Duration retention;
+
+    // 登録順に保持し、上限を超えたら終了済みの古いジョブから削除する
+    private final Map<String, BroadcastJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private ThreadPoolExecutor executor;
+
+    // 宛先の先読み用
+    private ExecutorService recipientExecutor;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            notificationBroadcastRepository.createTableIfNotExists();
+        });
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-fanout");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        recipientExecutor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-fanout-recipients");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Notification broadcast still running at shutdown");
+        }
+        recipientExecutor.shutdownNow();
+    }
+
+    /**
+     * 一斉配信ジョブを登録する
+     *
+     * @throws RejectedExecutionException 待機中のジョブが queue-capacity に達している場合
+     */
+    public BroadcastJob submit(BroadcastRequest request) {
+        BroadcastJob job = new BroadcastJob(UUID.randomUUID().toString(), request.getAudience(), 0);
+        notificationBroadcastRepository.insert(job.getId(), request, job.getStatus().name());
+        register(job);
+        try {
+            executor.execute(() -> run(job, request, 0L));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            notificationBroadcastRepository.updateStatus(job.getId(), BroadcastJob.Status.FAILED.name(),
+                    "Not started: " + e.getMessage());
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * 完了していないジョブを、配信済みの最後の宛先の続きから再開する
+     *
+     * @return ジョブが存在しない場合 empty
+     * @throws IllegalStateException      完了済み、またはこのインスタンスで実行中の場合
+     * @throws RejectedExecutionException 待機中のジョブが queue-capacity に達している場合
+     */
+    public Optional<BroadcastJob> resume(String id) {
+        BroadcastJob running = jobs.get(id);
+        if (running != null && !running.isFinished()) {
+            throw new IllegalStateException("Broadcast " + id + " is still running");
+        }
+        Optional<NotificationBroadcastRepository.Stored> found = notificationBroadcastRepository.find(id);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        NotificationBroadcastRepository.Stored stored = found.get();
+        if (BroadcastJob.Status.COMPLETED.name().equals(stored.status())) {
+            throw new IllegalStateException("Broadcast " + id + " is already completed");
+        }
+        BroadcastJob job = new BroadcastJob(id, stored.request().getAudience(), stored.delivered());
+        register(job);
+        try {
+            executor.execute(() -> run(job, stored.request(), stored.lastUserId()));
+        } catch (RejectedExecutionException e) {
+            if (running != null) {
+                jobs.put(id, running);
+            } else {
+                jobs.remove(id);
+            }
+            throw e;
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * 終了してから retention を過ぎたジョブの進捗を削除する（以降は再開できない）
+     */
+    @Scheduled(cron = "${notification.fanout.prune-cron:0 0 4 * * *}")
+    public void pruneFinished() {
+        int deleted = notificationBroadcastRepository.deleteFinishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} finished notification broadcasts", deleted);
+        }
+    }
+
+    public Optional<BroadcastJob> findJob(String id) {
+        BroadcastJob job = jobs.get(id);
+        if (job != null) {
+            return Optional.of(job);
+        }
+        // 再起動後や他のインスタンスで実行したジョブは、保存済みの進捗を返す
+        return notificationBroadcastRepository.find(id)
+                .map(stored -> BroadcastJob.restore(id, stored.request().getAudience(), stored.delivered(),
+                        BroadcastJob.Status.valueOf(stored.status()), stored.failure(), stored.createdAt(),
+                        stored.updatedAt()));
+    }
+
+    private void register(BroadcastJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            Iterator<BroadcastJob> oldest = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && oldest.hasNext()) {
+                if (oldest.next().isFinished()) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    private void run(BroadcastJob job, BroadcastRequest request, long afterUserId) {
+        job.start();
+        Counter delivered = meterRegistry.counter("notification.fanout.delivered",
+                "type", request.getType().name(), "audience", request.getAudience().name());
+        Timer chunkTimer = meterRegistry.timer("notification.fanout.chunk");
+        try {
+            notificationBroadcastRepository.updateStatus(job.getId(), BroadcastJob.Status.RUNNING.name(), null);
+            long lastUserId = afterUserId;
+            CompletableFuture<List<Long>> next = fetch(request, afterUserId);
+            while (true) {
+                List<Long> recipients = next.join();
+                if (recipients.isEmpty()) {
+                    break;
+                }
+                long fromUserId = lastUserId;
+                long toUserId = recipients.get(recipients.size() - 1);
+                next = recipients.size() < chunkSize ? CompletableFuture.completedFuture(List.of())
+                        : fetch(request, toUserId);
+                int inserted = chunkTimer.record(() -> transactionTemplate.execute(status -> {
+                    // 作成日時はチャンクごとの時刻（コミットの直前）にする
+                    int rows = notificationBatchRepository.insertForUsers(recipients, request.getTitle(),
+                            request.getMessage(), request.getType(), LocalDateTime.now());
+                    notificationUnreadCounter.created(recipients);
+                    if (!notificationBroadcastRepository.advance(job.getId(), fromUserId, toUserId, rows)) {
+                        throw new IllegalStateException("Broadcast " + job.getId() + " was advanced by another run");
+                    }
+                    return rows;
+                }));
+                lastUserId = toUserId;
+                delivered.increment(inserted);
+                job.addDelivered(inserted);
+            }
+            notificationBroadcastRepository.updateStatus(job.getId(), BroadcastJob.Status.COMPLETED.name(), null);
+            job.complete();
+            log.info("Notification broadcast {} finished: {} notifications in {} chunks, {} recipients/s",
+                    job.getId(), job.getDelivered(), job.getChunks(), job.getRecipientsPerSecond());
+        } catch (CompletionException e) {
+            log.error("Notification broadcast {} failed to resolve recipients", job.getId(), e.getCause());
+            fail(job, e.getCause().getMessage());
+        } catch (RuntimeException e) {
+            log.error("Notification broadcast {} failed", job.getId(), e);
+            fail(job, e.getMessage());
+        }
+    }
+
+    private void fail(BroadcastJob job, String message) {
+        job.fail(message);
+        try {
+            notificationBroadcastRepository.updateStatus(job.getId(), BroadcastJob.Status.FAILED.name(), message);
+        } catch (RuntimeException e) {
+            log.warn("Could not record failure of notification broadcast {}", job.getId(), e);
+        }
+    }
+
+    // afterId より後ろの宛先ユーザーIDを最大 chunk-size 件、昇順に取得する
+    private CompletableFuture<List<Long>> fetch(BroadcastRequest request, Long afterId) {
+        return CompletableFuture.supplyAsync(() -> switch (request.getAudience()) {
+            case ALL -> userClient.getActiveUserIds(null, afterId, chunkSize);
+            case ROLE -> userClient.getActiveUserIds(request.getRole(), afterId, chunkSize);
+            case INSTITUTION -> applicationClient.getUserIdsByInstitution(request.getInstitutionId(), afterId,
+                    chunkSize);
+        }, recipientExecutor);
+    }
+}
@@ -0,0 +1,359 @@
+package com.medicalcare.notificationservice.service;
+
+import com.medicalcare.notificationservice.dto.NotificationCursor;
+import com.medicalcare.notificationservice.dto.NotificationSummary;
+import com.medicalcare.notificationservice.repository.NotificationFeedRepository;
+import com.medicalcare.notificationservice.repository.NotificationFeedRepository.Pushed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 新着通知のプッシュ配信（Server-Sent Events）
+ * ユーザーごとの接続を登録し、poll-interval ごとに接続中のユーザーの新着通知を1回の問い合わせで取得して送る。
+ * 通知はどのインスタンスで作成されても DB を経由して届く。新着は作成日時ではなくコミット順に検出する
+ * （{@link NotificationFeedRepository}）。前回の xmin 以降のトランザクションの行は再取得されるため、送信済みの通知IDで重複を除く
+ * <p>
+ * 接続中は要求スレッドを占有しない（非同期リクエスト）。送信は接続ごとに1つずつ順に仮想スレッドで行い、
+ * 遅いクライアントが他の接続の配信を止めないようにする。送信待ちが send-queue-size を超えた接続は閉じる
+ * （クライアントは Last-Event-ID 付きで再接続する）。heartbeat-interval ごとにコメント行を送り、切断された接続を検出する。
+ * 再接続時は Last-Event-ID より後の通知を replay-limit 件まで再送する
+ */
+@Service
+public class NotificationPushService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPushService.class);
+
+    private static final String EVENT_NAME = "notification";
+
+    @Autowired
+    private NotificationFeedRepository notificationFeedRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.push.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${notification.push.reconnect-time:3s}")
+    private Duration reconnectTime;
+
+    @Value("${notification.push.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+
+    @Value("${notification.push.poll-interval:1s}")
+    private Duration pollInterval;
+
+    @Value("${notification.push.send-queue-size:1000}")
+    private int sendQueueSize;
+
+    @Value("${notification.push.poll-batch-size:1000}")
+    private int pollBatchSize;
+
+    @Value("${notification.push.replay-limit:500}")
+    private int replayLimit;
+
+    @Value("${notification.push.max-connections:50000}")
+    private int maxConnections;
+
+    // ユーザーID → 接続（同じユーザーが複数のタブ・端末から接続できる）
+    private final Map<Long, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    // 送信済みの通知ID → 作成したトランザクションのID（ポーリングのスレッドのみが参照する）
+    private final Map<Long, Long> dispatched = new HashMap<>();
+
+    // 前回のポーリング時の xmin（null の場合は次回のポーリングで初期化する）
+    private Long lastHorizon;
+
+    private ScheduledExecutorService scheduler;
+
+    private ExecutorService sender;
+
+    private Counter sent;
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("notification.push.connections", connections, AtomicInteger::get).register(meterRegistry);
+        sent = meterRegistry.counter("notification.push.sent");
+        sender = Executors.newVirtualThreadPerTaskExecutor();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-push");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        subscribers.values().forEach(registered -> registered.forEach(connection -> connection.emitter.complete()));
+        sender.shutdown();
+    }
+
+    /**
+     * ユーザーの接続を登録する
+     *
+     * @param lastEventId 最後に受け取ったイベントID（再接続時。null の場合は再送しない）
+     * @throws RejectedExecutionException 接続数が max-connections に達している場合
+     * @throws IllegalArgumentException   lastEventId が不正な場合
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        NotificationCursor cursor = NotificationCursor.decode(lastEventId);
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new RejectedExecutionException("Too many notification stream connections");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Connection connection = new Connection(userId, emitter);
+        subscribers.compute(userId, (key, registered) -> {
+            Set<Connection> current = registered != null ? registered : ConcurrentHashMap.newKeySet();
+            current.add(connection);
+            return current;
+        });
+        emitter.onCompletion(() -> unsubscribe(connection));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(connection));
+
+        // 接続の送信は順に行うため、再送が終わるまで新着は送られない（再送した通知は新着から除く）
+        connection.submit(() -> {
+            if (!send(connection, SseEmitter.event().comment("connected").reconnectTime(reconnectTime.toMillis()))
+                    || cursor == null) {
+                return;
+            }
+            try {
+                for (NotificationSummary notification : notificationFeedRepository.findByUserCreatedAfter(userId,
+                        cursor.getCreatedAt(), cursor.getId(), replayLimit)) {
+                    if (!send(connection, event(notification))) {
+                        return;
+                    }
+                    connection.replayed.add(notification.getId());
+                    sent.increment();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not replay notifications for user {}", userId, e);
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    private void unsubscribe(Connection connection) {
+        connection.closed = true;
+        subscribers.computeIfPresent(connection.userId, (key, registered) -> {
+            if (registered.remove(connection)) {
+                connections.decrementAndGet();
+            }
+            return registered.isEmpty() ? null : registered;
+        });
+    }
+
+    /**
+     * 前回のポーリング時の xmin 以降のトランザクションで作成された、接続中のユーザーの通知を送る
+     * xmin は問い合わせの前に取得する（問い合わせ時点で未コミットのトランザクションは、すべてその xmin 以降）
+     */
+    private void poll() {
+        try {
+            long horizon = notificationFeedRepository.currentHorizon();
+            if (subscribers.isEmpty() || lastHorizon == null) {
+                dispatched.clear();
+                lastHorizon = horizon;
+                return;
+            }
+            List<Long> userIds = new ArrayList<>(subscribers.keySet());
+            Map<Long, List<NotificationSummary>> byUser = new HashMap<>();
+            long afterXid = lastHorizon;
+            long afterId = 0;
+            while (true) {
+                List<Pushed> page = notificationFeedRepository.findCreatedByTransactionsAfter(userIds, afterXid,
+                        afterId, pollBatchSize);
+                for (Pushed pushed : page) {
+                    NotificationSummary notification = pushed.notification();
+                    if (dispatched.putIfAbsent(notification.getId(), pushed.xid()) == null) {
+                        byUser.computeIfAbsent(notification.getUserId(), key -> new ArrayList<>()).add(notification);
+                    }
+                }
+                if (page.size() < pollBatchSize) {
+                    break;
+                }
+                Pushed last = page.get(page.size() - 1);
+                afterXid = last.xid();
+                afterId = last.notification().getId();
+            }
+            // 1回のポーリング内では Last-Event-ID と同じ (createdAt, id) の順に送る
+            byUser.values().forEach(notifications -> notifications.sort(
+                    Comparator.comparing(NotificationSummary::getCreatedAt).thenComparing(NotificationSummary::getId)));
+            byUser.forEach(this::dispatch);
+            // xmin より前のトランザクションの行は再び取得されない
+            dispatched.values().removeIf(xid -> xid < horizon);
+            lastHorizon = horizon;
+        } catch (RuntimeException e) {
+            // lastHorizon を進めないため、次回は同じ範囲から取得し直す
+            log.warn("Polling new notifications failed", e);
+        }
+    }
+
+    private void dispatch(Long userId, List<NotificationSummary> notifications) {
+        Set<Connection> registered = subscribers.get(userId);
+        if (registered == null) {
+            return;
+        }
+        for (Connection connection : registered) {
+            connection.submit(() -> {
+                for (NotificationSummary notification : notifications) {
+                    if (connection.replayed.contains(notification.getId())) {
+                        continue;
+                    }
+                    if (!send(connection, event(notification))) {
+                        return;
+                    }
+                    sent.increment();
+                }
+            });
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(registered -> {
+            for (Connection connection : registered) {
+                connection.submit(() -> send(connection, SseEmitter.event().comment("heartbeat")));
+            }
+        });
+    }
+
+    private SseEmitter.SseEventBuilder event(NotificationSummary notification) {
+        return SseEmitter.event()
+                .id(NotificationCursor.of(notification).encode())
+                .name(EVENT_NAME)
+                .data(notification, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * @return 送信できた場合 true（切断されていた場合は接続を破棄して false）
+     */
+    private boolean send(Connection connection, SseEmitter.SseEventBuilder event) {
+        if (connection.closed) {
+            return false;
+        }
+        try {
+            connection.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(connection);
+            connection.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * 1つの SSE 接続
+     * 送信は submit した順に1つずつ行う（同時に実行される送信は接続ごとに最大1つ）
+     */
+    private final class Connection {
+
+        private final Long userId;
+
+        private final SseEmitter emitter;
+
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // 再送した通知ID（送信中のタスクのみが参照する）
+        private final Set<Long> replayed = new HashSet<>();
+
+        private volatile boolean closed;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void submit(Runnable task) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > sendQueueSize) {
+                log.warn("Closing notification stream of user {}: {} sends pending", userId, sendQueueSize);
+                unsubscribe(this);
+                emitter.complete();
+                return;
+            }
+            tasks.add(task);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 停止中
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                    queued.decrementAndGet();
+                    if (closed) {
+                        continue;
+                    }
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        log.warn("Notification stream send failed for user {}", userId, e);
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // draining を戻す前に追加されたタスク
+            if (!tasks.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.medicalcare.notificationservice.service;
+
+import com.medicalcare.notificationservice.repository.NotificationArchiveRepository;
+import com.medicalcare.notificationservice.repository.NotificationArchiveRepository.Moved;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通知の保持期間ジョブ
+ * アーカイブ済み（archived-after 経過）と既読（read-after 経過）の通知を notifications_archive へ移動し、
+ * 受信箱の検索対象の notifications とそのインデックスを小さく保つ。未読は移動しない（未読件数は変わらない）
+ * <p>
+ * 1回 batch-size 件を1トランザクションで移動し、バッチの間に batch-pause 待って I/O の急増を避ける。
+ * バッチは前のバッチの最後のIDから続けるため、1回の実行での読み込みはテーブルの大きさに比例する程度に収まる。
+ * 1回の実行は max-duration で打ち切り、残りは次回に回す。複数インスタンスでは同時に1バッチだけが動く
+ * <p>
+ * メトリクス: notification.retention.moved（移動件数）/ notification.retention.moved.bytes（移動した行のバイト数）、
+ * notification.table.size（notifications と notifications_archive のサイズ。実行のたびに更新）
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class NotificationRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+    // 全 notification-service インスタンスで共有する pg_advisory_xact_lock のキー
+    private static final long LOCK_KEY = 0x4E4F5452544EL;
+
+    private static final String HOT_TABLE = "notifications";
+
+    private static final String COLD_TABLE = "notifications_archive";
+
+    @Autowired
+    private NotificationArchiveRepository notificationArchiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.retention.archived-after:30d}")
+    private Duration archivedAfter;
+
+    @Value("${notification.retention.read-after:180d}")
+    private Duration readAfter;
+
+    @Value("${notification.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notification.retention.batch-pause:200ms}")
+    private Duration batchPause;
+
+    @Value("${notification.retention.max-duration:30m}")
+    private Duration maxDuration;
+
+    @Value("${notification.retention.vacuum:true}")
+    private boolean vacuum;
+
+    private final AtomicLong hotTableSize = new AtomicLong();
+
+    private final AtomicLong coldTableSize = new AtomicLong();
+
+    private Counter moved;
+
+    private Counter movedBytes;
+
+    @PostConstruct
+    public void initialize() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            notificationArchiveRepository.createTableIfNotExists();
+        });
+        moved = meterRegistry.counter("notification.retention.moved");
+        movedBytes = meterRegistry.counter("notification.retention.moved.bytes");
+        Gauge.builder("notification.table.size", hotTableSize, AtomicLong::get)
+                .tag("table", HOT_TABLE).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("notification.table.size", coldTableSize, AtomicLong::get)
+                .tag("table", COLD_TABLE).baseUnit("bytes").register(meterRegistry);
+        refreshSizes();
+    }
+
+    @Scheduled(cron = "${notification.retention.cron:0 30 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + maxDuration.toNanos();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime archivedBefore = now.minus(archivedAfter);
+        LocalDateTime readBefore = now.minus(readAfter);
+        long sizeBefore = notificationArchiveRepository.totalSize(HOT_TABLE);
+        long rows = 0;
+        long bytes = 0;
+        long lastId = 0;
+        try {
+            while (System.nanoTime() - deadline < 0) {
+                long afterId = lastId;
+                Moved batch = transactionTemplate.execute(status -> {
+                    // 他のインスタンスがバッチを実行中であれば、今回はそのインスタンスに任せる
+                    if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                            "SELECT pg_try_advisory_xact_lock(" + LOCK_KEY + ")", Boolean.class))) {
+                        return null;
+                    }
+                    return notificationArchiveRepository.moveExpired(afterId, archivedBefore, readBefore,
+                            batchSize, LocalDateTime.now());
+                });
+                if (batch == null) {
+                    log.info("Notification retention is running on another instance");
+                    break;
+                }
+                rows += batch.rows();
+                bytes += batch.bytes();
+                lastId = batch.lastId();
+                moved.increment(batch.rows());
+                movedBytes.increment(batch.bytes());
+                if (batch.rows() < batchSize) {
+                    break;
+                }
+                Thread.sleep(batchPause.toMillis());
+            }
+            if (rows > 0 && vacuum) {
+                notificationArchiveRepository.vacuum(HOT_TABLE);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Notification retention failed after moving {} notifications", rows, e);
+        }
+        refreshSizes();
+        log.info("Notification retention moved {} notifications ({} bytes) to {} in {} ms; {} size {} -> {} bytes",
+                rows, bytes, COLD_TABLE, Duration.ofNanos(System.nanoTime() - startedAt).toMillis(), HOT_TABLE,
+                sizeBefore, hotTableSize.get());
+    }
+
+    private void refreshSizes() {
+        try {
+            hotTableSize.set(notificationArchiveRepository.totalSize(HOT_TABLE));
+            coldTableSize.set(notificationArchiveRepository.totalSize(COLD_TABLE));
+        } catch (RuntimeException e) {
+            log.warn("Could not read notification table sizes", e);
+        }
+    }
+}
@@ -1,11 +1,24 @@
 package com.medicalcare.notificationservice.service;
 
 import com.medicalcare.notificationservice.domain.Notification;
+import com.medicalcare.notificationservice.dto.ApplicationEvent;
+import com.medicalcare.notificationservice.dto.CursorPage;
+import com.medicalcare.notificationservice.dto.NotificationCursor;
+import com.medicalcare.notificationservice.dto.NotificationSummary;
 import com.medicalcare.notificationservice.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class NotificationService {
@@ -13,15 +26,134 @@ public class NotificationService {
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private NotificationUnreadCounter notificationUnreadCounter;
+
+    @Autowired
+    private NotificationDigestBuffer notificationDigestBuffer;
+
     public List<Notification> findAll() {
         return notificationRepository.findAll();
     }
 
+    public List<NotificationSummary> findAllSummaries() {
+        return notificationRepository.findAllSummaries();
+    }
+
+    public Optional<Notification> findById(Long id) {
+        return notificationRepository.findById(id);
+    }
+
     public List<Notification> findByUserId(Long userId) {
         return notificationRepository.findByUserId(userId);
     }
 
+    /**
+     * ユーザーの受信箱を新しい順に取得する（status を指定した場合はそのステータスのみ）
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationSummary> findInbox(Long userId, Notification.NotificationStatus status,
+            NotificationCursor cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<NotificationSummary> rows = status == null
+                ? notificationRepository.findInbox(userId, cursor.getCreatedAt(), cursor.getId(), limit)
+                : notificationRepository.findInboxByStatus(userId, status, cursor.getCreatedAt(), cursor.getId(),
+                        limit);
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<NotificationSummary> items = rows.subList(0, size);
+        return new CursorPage<>(items, NotificationCursor.of(items.get(size - 1)).encode());
+    }
+
+    // notifications を数えずに、集計済みの未読件数を返す
+    public long countUnread(Long userId) {
+        return notificationUnreadCounter.countUnread(userId);
+    }
+
+    // 未読件数を notifications から再集計（他のインスタンスが実行中の場合は false）
+    public boolean reconcileUnreadCounts() {
+        return notificationUnreadCounter.reconcile();
+    }
+
+    @Transactional
     public Notification save(Notification notification) {
-        return notificationRepository.save(notification);
+        String previousStatus = notification.getId() == null ? null
+                : notificationRepository.findStatusByIdForUpdate(notification.getId());
+        Notification.NotificationStatus previous = previousStatus == null ? null
+                : Notification.NotificationStatus.valueOf(previousStatus);
+        Notification saved = notificationRepository.save(notification);
+        long delta = (saved.getStatus() == Notification.NotificationStatus.UNREAD ? 1 : 0)
+                - (previous == Notification.NotificationStatus.UNREAD ? 1 : 0);
+        if (delta != 0) {
+            notificationUnreadCounter.changed(Map.of(saved.getUserId(), delta));
+        }
+        return saved;
+    }
+
+    /**
+     * 申請イベントから申請者への通知を作成する
+     * 配信済みの eventId は無視する（同じ eventId の同時配信は一意制約で失敗し、送信側が再試行する）。
+     * まとめる対象のタイプはコミット後にダイジェストのバッファーへ渡す
+     *
+     * @return 作成した通知の件数（バッファーへ渡した通知を含む）
+     */
+    @Transactional
+    public int handleApplicationEvents(List<ApplicationEvent> events) {
+        Set<String> eventIds = new HashSet<>();
+        for (ApplicationEvent event : events) {
+            eventIds.add(event.getEventId());
+        }
+        Set<String> seen = new HashSet<>(notificationRepository.findExistingEventIds(eventIds));
+        List<Notification> notifications = new ArrayList<>();
+        List<Notification> digested = new ArrayList<>();
+        for (ApplicationEvent event : events) {
+            if (event.getUserId() == null || !seen.add(event.getEventId())
+                    || notificationDigestBuffer.isKnown(event.getEventId())) {
+                continue;
+            }
+            Notification notification = toNotification(event);
+            if (notification == null) {
+                continue;
+            }
+            (notificationDigestBuffer.accepts(notification) ? digested : notifications).add(notification);
+        }
+        notificationRepository.saveAll(notifications);
+        notificationUnreadCounter.created(notifications.stream().map(Notification::getUserId).toList());
+        if (!digested.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // バッファーへの追加のみ（書き込みはバッファーの flush で行う）
+                    digested.forEach(notificationDigestBuffer::add);
+                }
+            });
+        }
+        return notifications.size() + digested.size();
+    }
+
+    // 申請者に知らせる遷移のみ通知にする（下書きへの差し戻しなどは対象外）
+    private Notification toNotification(ApplicationEvent event) {
+        String subject = event.getTitle() + "（" + event.getApplicationNumber() + "）";
+        Notification notification;
+        switch (event.getStatus()) {
+            case "SUBMITTED" -> notification = new Notification(event.getUserId(), "申請を受け付けました",
+                    "申請「" + subject + "」を受け付けました。", Notification.NotificationType.APPLICATION_SUBMITTED);
+            case "REVIEWING" -> notification = new Notification(event.getUserId(), "申請の審査を開始しました",
+                    "申請「" + subject + "」の審査を開始しました。", Notification.NotificationType.APPLICATION_REVIEWING);
+            case "APPROVED" -> notification = new Notification(event.getUserId(), "申請が承認されました",
+                    "申請「" + subject + "」が承認されました。", Notification.NotificationType.APPLICATION_APPROVED);
+            case "REJECTED" -> notification = new Notification(event.getUserId(), "申請が却下されました",
+                    "申請「" + subject + "」が却下されました。"
+                            + (event.getRejectionReason() == null ? "" : "\n却下理由: " + event.getRejectionReason()),
+                    Notification.NotificationType.APPLICATION_REJECTED);
+            case "WITHDRAWN" -> notification = new Notification(event.getUserId(), "申請を取り下げました",
+                    "申請「" + subject + "」を取り下げました。", Notification.NotificationType.GENERAL);
+            default -> {
+                return null;
+            }
+        }
+        notification.setEventId(event.getEventId());
+        return notification;
     }
 }
@@ -0,0 +1,122 @@
+package com.medicalcare.notificationservice.service;
+
+import com.medicalcare.notificationservice.repository.NotificationUnreadCountRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 未読件数の集計
+ * 通知の作成・状態変更と同じトランザクションで未読件数を増減し、未読件数の取得では notifications を参照しない
+ * <p>
+ * 起動時に件数テーブルが空であれば notifications から集計して初期化する。
+ * 件数のずれ（手動でのデータ修正など、このクラスを経由しない変更）は定期的な再集計で解消する
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class NotificationUnreadCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationUnreadCounter.class);
+
+    // 全 notification-service インスタンスで共有する pg_advisory_xact_lock のキー
+    private static final long LOCK_KEY = 0x4E4F54554E52L;
+
+    @Autowired
+    private NotificationUnreadCountRepository notificationUnreadCountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${notification.unread.slots:4}")
+    private int slots;
+
+    @PostConstruct
+    public void initialize() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            notificationUnreadCountRepository.createTableIfNotExists();
+            if (notificationUnreadCountRepository.isEmpty()) {
+                notificationUnreadCountRepository.rebuild();
+                log.info("Initialized notification unread counts from notifications");
+            }
+        });
+    }
+
+    /**
+     * notifications から未読件数を再集計する
+     * 他のインスタンスが初期化・再集計中の場合は何もせず false を返す
+     */
+    public boolean reconcile() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(" + LOCK_KEY + ")", Boolean.class))) {
+                return false;
+            }
+            long started = System.nanoTime();
+            notificationUnreadCountRepository.rebuild();
+            log.info("Reconciled notification unread counts in {} ms", (System.nanoTime() - started) / 1_000_000);
+            return true;
+        }));
+    }
+
+    @Scheduled(cron = "${notification.unread.reconcile-cron:0 45 3 * * *}")
+    public void scheduledReconcile() {
+        if (!reconcile()) {
+            log.info("Skipped notification unread count reconcile: already running on another instance");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long countUnread(Long userId) {
+        return notificationUnreadCountRepository.countUnread(userId);
+    }
+
+    /**
+     * 作成された未読通知を加算（宛先ユーザーごとに1件）
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Collection<Long> userIds) {
+        TreeMap<Long, Long> deltas = new TreeMap<>();
+        for (Long userId : userIds) {
+            deltas.merge(userId, 1L, Long::sum);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * ユーザーごとの増減を反映（既読・アーカイブ・削除は負の値）
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Map<Long, Long> deltas) {
+        apply(new TreeMap<>(deltas));
+    }
+
+    /**
+     * ランダムに選んだ1スロットへ、ユーザーIDの昇順に1文で反映する（同時実行されてもロック順序が揃う）
+     */
+    private void apply(TreeMap<Long, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        notificationUnreadCountRepository.applyDeltas(ThreadLocalRandom.current().nextInt(slots),
+                deltas.keySet().toArray(new Long[0]), deltas.values().toArray(new Long[0]));
+    }
+}
@@ -0,0 +1,105 @@
+#!/bin/bash
+
+# Audit Log Partitioning Benchmark
+# Compares one-day date-range query latency on a plain audit table and a monthly
+# range-partitioned one while total volume grows. Runs against a scratch schema
+# (audit_bench) that is dropped afterwards; production tables are not touched.
+#
+# Usage: ./scripts/audit-partition-benchmark.sh [rows-per-month] [months...]
+#   PGHOST/PGPORT/PGUSER/PGPASSWORD/PGDATABASE select the database
+#   (defaults: the postgres-audit container published on localhost:5437)
+
+ROWS_PER_MONTH=${1:-200000}
+shift
+STEPS=${*:-"3 6 12 24"}
+
+export PGHOST=${PGHOST:-localhost}
+export PGPORT=${PGPORT:-5437}
+export PGUSER=${PGUSER:-postgres}
+export PGPASSWORD=${PGPASSWORD:-password}
+export PGDATABASE=${PGDATABASE:-medicalcare_audit}
+
+PSQL="psql -X -q -v ON_ERROR_STOP=1 -t -A"
+
+echo "=== Audit Log Partitioning Benchmark ==="
+echo "Database: ${PGUSER}@${PGHOST}:${PGPORT}/${PGDATABASE}"
+echo "Rows per month: ${ROWS_PER_MONTH}"
+echo ""
+
+$PSQL <<'SQL' || exit 1
+DROP SCHEMA IF EXISTS audit_bench CASCADE;
+CREATE SCHEMA audit_bench;
+CREATE TABLE audit_bench.plain (
+    id bigserial PRIMARY KEY,
+    user_id varchar(255) NOT NULL,
+    action varchar(255) NOT NULL,
+    resource varchar(255) NOT NULL,
+    resource_id varchar(255) NOT NULL,
+    details text,
+    timestamp timestamp(6) NOT NULL,
+    ip_address varchar(255) NOT NULL,
+    user_agent varchar(255) NOT NULL
+);
+CREATE TABLE audit_bench.partitioned (LIKE audit_bench.plain INCLUDING DEFAULTS) PARTITION BY RANGE (timestamp);
+ALTER TABLE audit_bench.partitioned ADD PRIMARY KEY (id, timestamp);
+SQL
+
+# Query the middle of the most recent month so both tables return the same rows
+run_query() {
+    local table=$1
+    $PSQL -c "EXPLAIN (ANALYZE, FORMAT TEXT)
+        SELECT * FROM audit_bench.${table}
+        WHERE timestamp BETWEEN date_trunc('month', now()) + interval '14 days'
+                            AND date_trunc('month', now()) + interval '15 days'
+        ORDER BY timestamp DESC" | grep 'Execution Time' | sed 's/.*: //'
+}
+
+loaded=0
+printf "%-8s %-12s %-12s %-20s %-20s\n" "months" "rows" "partitions" "plain" "partitioned"
+for months in $STEPS; do
+    # Load the months added by this step, going back in time from the current month
+    while [ "$loaded" -lt "$months" ]; do
+        offset=$loaded
+        $PSQL <<SQL || exit 1
+DO \$\$
+DECLARE
+    month_start timestamp := date_trunc('month', now()) - interval '${offset} months';
+    part text := 'p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS audit_bench.%I PARTITION OF audit_bench.partitioned '
+                   'FOR VALUES FROM (%L) TO (%L)', part, month_start, month_start + interval '1 month');
+END
+\$\$;
+WITH generated AS (
+    SELECT 'user-' || (g % 5000) AS user_id,
+           (ARRAY['CREATE','READ','UPDATE','DELETE'])[1 + g % 4] AS action,
+           (ARRAY['USER','APPLICATION','FILE'])[1 + g % 3] AS resource,
+           (g % 100000)::text AS resource_id,
+           date_trunc('month', now()) - interval '${offset} months'
+               + (g::double precision / ${ROWS_PER_MONTH}) * interval '28 days' AS ts
+    FROM generate_series(1, ${ROWS_PER_MONTH}) g
+), plain_insert AS (
+    INSERT INTO audit_bench.plain (user_id, action, resource, resource_id, details, timestamp, ip_address, user_agent)
+    SELECT user_id, action, resource, resource_id, NULL, ts, '10.0.0.1', 'benchmark' FROM generated
+)
+INSERT INTO audit_bench.partitioned (id, user_id, action, resource, resource_id, details, timestamp, ip_address, user_agent)
+SELECT nextval('audit_bench.plain_id_seq'), user_id, action, resource, resource_id, NULL, ts, '10.0.0.1', 'benchmark'
+FROM generated;
+SQL
+        loaded=$((loaded + 1))
+    done
+    $PSQL -c "ANALYZE audit_bench.plain; ANALYZE audit_bench.partitioned;" || exit 1
+
+    # Warm up, then keep the second run
+    run_query plain > /dev/null
+    run_query partitioned > /dev/null
+    plain_ms=$(run_query plain)
+    partitioned_ms=$(run_query partitioned)
+    total_rows=$((months * ROWS_PER_MONTH))
+    partitions=$($PSQL -c "SELECT count(*) FROM pg_inherits WHERE inhparent = 'audit_bench.partitioned'::regclass")
+    printf "%-8s %-12s %-12s %-20s %-20s\n" "$months" "$total_rows" "$partitions" "$plain_ms" "$partitioned_ms"
+done
+
+$PSQL -c "DROP SCHEMA audit_bench CASCADE;"
+echo ""
+echo "Partitioned latency should stay roughly constant: the one-day query only reads its month's partition."
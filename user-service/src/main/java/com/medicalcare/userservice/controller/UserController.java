@@ -1,31 +1,54 @@
 package com.medicalcare.userservice.controller;
 
 import com.medicalcare.userservice.domain.User;
+import com.medicalcare.userservice.dto.UserSummary;
 import com.medicalcare.userservice.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = { HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED })
 public class UserController {
 
     @Autowired
     private UserService userService;
 
+    // 条件付きGETで ETag が一致した場合は、本文をシリアライズせずに 304 を返す
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserSummary>> getAllUsers() {
+        List<UserSummary> users = userService.getAllUserSummaries();
+        return ResponseEntity.ok()
+                .eTag(ListETag.of(users, user -> user.getId() + "-" + version(user.getUpdatedAt())))
+                .body(users);
+    }
+
+    // 有効なユーザーのID（通知サービスの一斉配信で宛先の解決に使う）。次のページは最後のIDを afterId に指定する
+    @GetMapping("/ids")
+    public ResponseEntity<List<Long>> getActiveUserIds(@RequestParam(required = false) User.UserRole role,
+            @RequestParam(defaultValue = "0") Long afterId, @RequestParam(defaultValue = "10000") int size) {
+        return ResponseEntity.ok(userService.getActiveUserIds(role, afterId, Math.min(Math.max(size, 1), 10000)));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
         return userService.getUserById(id)
-                .map(ResponseEntity::ok)
+                .map(user -> {
+                    ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                            .eTag(user.getId() + "-" + version(user.getUpdatedAt()));
+                    if (user.getUpdatedAt() != null) {
+                        builder.lastModified(user.getUpdatedAt().atZone(ZoneId.systemDefault()));
+                    }
+                    return builder.body(user);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -49,4 +72,9 @@ public class UserController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("User Service is healthy");
     }
+
+    // DBの精度（マイクロ秒）に揃え、保存直後と再読み込み後で同じ値にする
+    private static String version(LocalDateTime updatedAt) {
+        return updatedAt == null ? "0" : updatedAt.truncatedTo(ChronoUnit.MICROS).toString();
+    }
 }
\ No newline at end of file
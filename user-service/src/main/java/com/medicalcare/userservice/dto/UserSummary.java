@@ -0,0 +1,65 @@
+package com.medicalcare.userservice.dto;
+
+import com.medicalcare.userservice.domain.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * ユーザーサマリー
+ * 一覧表示用に、一覧で使う列だけを保持する
+ */
+public class UserSummary {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final User.UserRole role;
+    private final User.UserStatus status;
+    private final LocalDateTime updatedAt;
+
+    public UserSummary(Long id, String username, String email, String firstName, String lastName,
+            User.UserRole role, User.UserStatus status, LocalDateTime updatedAt) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.role = role;
+        this.status = status;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public User.UserRole getRole() {
+        return role;
+    }
+
+    public User.UserStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
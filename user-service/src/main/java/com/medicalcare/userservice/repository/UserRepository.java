@@ -1,9 +1,14 @@
 package com.medicalcare.userservice.repository;
 
 import com.medicalcare.userservice.domain.User;
+import com.medicalcare.userservice.dto.UserSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +20,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // 一覧用（パスワードなどは読み込まない）。ETag が行の順序に依存するため ID 順に返す
+    @Query("SELECT new com.medicalcare.userservice.dto.UserSummary("
+            + "u.id, u.username, u.email, u.firstName, u.lastName, u.role, u.status, u.updatedAt) FROM User u ORDER BY u.id")
+    List<UserSummary> findAllSummaries();
+
+    // 通知の一斉配信用（ID順のキーセットページング。role が null の場合は全ロール）
+    @Query("SELECT u.id FROM User u WHERE u.status = :status AND (:role IS NULL OR u.role = :role)"
+            + " AND u.id > :afterId ORDER BY u.id")
+    List<Long> findIds(@Param("status") User.UserStatus status, @Param("role") User.UserRole role,
+            @Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
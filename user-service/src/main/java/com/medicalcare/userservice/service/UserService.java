@@ -1,8 +1,10 @@
 package com.medicalcare.userservice.service;
 
 import com.medicalcare.userservice.domain.User;
+import com.medicalcare.userservice.dto.UserSummary;
 import com.medicalcare.userservice.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,6 +20,14 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    public List<UserSummary> getAllUserSummaries() {
+        return userRepository.findAllSummaries();
+    }
+
+    public List<Long> getActiveUserIds(User.UserRole role, Long afterId, int size) {
+        return userRepository.findIds(User.UserStatus.ACTIVE, role, afterId, PageRequest.of(0, size));
+    }
+
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }